@@ -380,19 +380,19 @@ exports.onAlertCreated = functions.firestore
     else if (type === "NEAR_EXPIRY") title = "Near expiry alert";
 
     const topic = `owner_${owner}`;
+    // Data-only so the app always receives it in onMessageReceived and can
+    // coalesce it with local alerts instead of the system posting it directly.
     const payload = {
-      notification: {
-        title: title,
-        body: message
-      },
       data: {
+        title: title,
+        body: message,
         alertId: context.params.alertId || "",
         type: type
       }
     };
 
     try {
-      await admin.messaging().sendToTopic(topic, payload);
+      await admin.messaging().sendToTopic(topic, payload, { priority: "high" });
       console.log(`Alert notification sent to topic: ${topic}`);
       return null;
     } catch (err) {
@@ -552,7 +552,8 @@ exports.onProductWrite = functions.firestore
           type: a.type,
           message: a.message,
           read: false,
-          timestamp: admin.firestore.FieldValue.serverTimestamp(),
+          timestamp: Date.now(),
+          createdAt: admin.firestore.FieldValue.serverTimestamp(),
           source: "system",
           createdBy: "system"
         };
@@ -0,0 +1,27 @@
+package com.app.SalesInventory;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface AlertDedupeDao {
+
+    /**
+     * Claims a key. Returns -1 when it was already claimed.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long claim(AlertDedupeEntity entry);
+
+    @Query("DELETE FROM alert_dedupe WHERE dedupeKey = :dedupeKey")
+    void release(String dedupeKey);
+
+    @Query("SELECT dedupeKey FROM alert_dedupe WHERE createdAt >= :since")
+    List<String> getKeysSinceSync(long since);
+
+    @Query("DELETE FROM alert_dedupe WHERE createdAt < :cutoff")
+    int deleteOlderThan(long cutoff);
+}
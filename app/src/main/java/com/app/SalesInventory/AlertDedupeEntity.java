@@ -0,0 +1,21 @@
+package com.app.SalesInventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One row per alert this device has created. dedupeKey doubles as the alert
+ * document ID, so a claimed key means the alert for that product, type and
+ * window already exists (or is being written).
+ */
+@Entity(tableName = "alert_dedupe", indices = {@Index("createdAt")})
+public class AlertDedupeEntity {
+    @PrimaryKey
+    @NonNull
+    public String dedupeKey = "";
+    public String productId;
+    public String type;
+    public long createdAt;
+}
@@ -6,15 +6,39 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
-
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AlertRepository {
     private static final String TAG = "AlertRepository";
+    private static final long DEDUPE_RETENTION_MILLIS = 90L * 24L * 60L * 60L * 1000L;
+    private static final int MAX_BATCH_WRITES = 450;
+    private static final int MAX_BATCHES_IN_FLIGHT = 3;
+    private static final int RECENT_ALERT_LIMIT = 200;
+    private static final int OLDER_ALERT_PAGE_SIZE = 100;
+    private static final int UNREAD_ALERT_LIMIT = 500;
     private static AlertRepository instance;
     private final FirestoreManager firestoreManager;
     private final FirestoreSyncListener syncListener;
@@ -22,6 +46,15 @@ public class AlertRepository {
     private final MutableLiveData<List<Alert>> unreadAlerts;
     private final MutableLiveData<Integer> unreadAlertCount;
     private final Application application;
+    private final AlertDedupeDao dedupeDao;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final Set<String> knownAlertKeys = ConcurrentHashMap.newKeySet();
+    private List<Alert> recentAlerts = new ArrayList<>();
+    private final List<Alert> olderAlerts = new ArrayList<>();
+    private DocumentSnapshot recentCursor;
+    private DocumentSnapshot olderCursor;
+    private boolean hasMoreOlder = true;
+    private boolean loadingOlder;
 
     private AlertRepository(Application application) {
         this.application = application;
@@ -30,6 +63,8 @@ public class AlertRepository {
         this.allAlerts = new MutableLiveData<>();
         this.unreadAlerts = new MutableLiveData<>();
         this.unreadAlertCount = new MutableLiveData<>(0);
+        this.dedupeDao = AppDatabase.getInstance(application).alertDedupeDao();
+        warmDedupeIndex();
         startRealtimeSync();
     }
 
@@ -45,34 +80,125 @@ public class AlertRepository {
             Log.w(TAG, "User not authenticated. Cannot start sync.");
             return;
         }
-        syncListener.listenToAlerts(snapshot -> {
-            List<Alert> alertList = new ArrayList<>();
-            List<Alert> unread = new ArrayList<>();
-            int unreadCount = 0;
-            if (snapshot != null) {
-                for (DocumentSnapshot document : snapshot.getDocuments()) {
-                    try {
-                        Alert alert = createAlertFromSnapshot(document);
-                        if (alert != null) {
-                            alert.setId(document.getId());
-                            alertList.add(alert);
-                            if (!alert.isRead()) {
-                                unread.add(alert);
-                                unreadCount++;
-                            }
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error deserializing alert document: " + document.getId(), e);
-                    }
-                }
-            }
-            allAlerts.postValue(alertList);
+        syncListener.listenToAlerts(RECENT_ALERT_LIMIT, this::onRecentAlerts);
+        syncListener.listenToUnreadAlerts(UNREAD_ALERT_LIMIT, snapshot -> {
+            List<Alert> unread = snapshot != null ? toAlerts(snapshot.getDocuments()) : new ArrayList<>();
             unreadAlerts.postValue(unread);
-            unreadAlertCount.postValue(unreadCount);
-            Log.d(TAG, "Alerts synced from Firestore: " + alertList.size() + " (Unread: " + unreadCount + ")");
+            if (unread.size() < UNREAD_ALERT_LIMIT) {
+                unreadAlertCount.postValue(unread.size());
+            } else {
+                refreshUnreadCount();
+            }
+            Log.d(TAG, "Unread alerts synced from Firestore: " + unread.size());
         });
     }
 
+    /**
+     * The unread listener stops at UNREAD_ALERT_LIMIT newest alerts; past
+     * that the badge count comes from a server-side count() aggregation.
+     */
+    private void refreshUnreadCount() {
+        firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath())
+                .whereEqualTo("read", false)
+                .count()
+                .get(AggregateSource.SERVER)
+                .addOnSuccessListener(result -> unreadAlertCount.postValue((int) result.getCount()))
+                .addOnFailureListener(e -> Log.w(TAG, "Unread alert count failed", e));
+    }
+
+    private void onRecentAlerts(QuerySnapshot snapshot) {
+        List<DocumentSnapshot> docs = snapshot != null ? snapshot.getDocuments() : new ArrayList<>();
+        List<Alert> recent = toAlerts(docs);
+        if (!olderAlerts.isEmpty() && !recent.isEmpty()) {
+            // Alerts pushed out of the window by newer ones sit before the
+            // first loaded page, so carry them over instead of losing them.
+            long floor = recent.get(recent.size() - 1).getTimestamp();
+            Set<String> ids = new HashSet<>();
+            for (Alert alert : recent) ids.add(alert.getId());
+            List<Alert> dropped = new ArrayList<>();
+            for (Alert alert : recentAlerts) {
+                if (!ids.contains(alert.getId()) && alert.getTimestamp() <= floor) dropped.add(alert);
+            }
+            olderAlerts.addAll(0, dropped);
+        }
+        recentAlerts = recent;
+        recentCursor = docs.isEmpty() ? null : docs.get(docs.size() - 1);
+        if (olderAlerts.isEmpty()) {
+            olderCursor = null;
+            hasMoreOlder = docs.size() >= RECENT_ALERT_LIMIT;
+        }
+        publishAllAlerts();
+        Log.d(TAG, "Recent alerts synced from Firestore: " + recent.size());
+    }
+
+    private void publishAllAlerts() {
+        Map<String, Alert> merged = new LinkedHashMap<>();
+        for (Alert alert : recentAlerts) merged.put(alert.getId(), alert);
+        for (Alert alert : olderAlerts) {
+            if (!merged.containsKey(alert.getId())) merged.put(alert.getId(), alert);
+        }
+        allAlerts.postValue(new ArrayList<>(merged.values()));
+    }
+
+    /**
+     * Appends the next page of alerts older than everything loaded so far to
+     * getAllAlerts(). Only the newest RECENT_ALERT_LIMIT alerts are listened
+     * to live; history comes in through here. Call on the main thread.
+     */
+    public void loadOlderAlerts(OnAlertsFetchedListener listener) {
+        if (!firestoremanagerIsReady()) {
+            listener.onError("User not authenticated");
+            return;
+        }
+        DocumentSnapshot cursor = olderCursor != null ? olderCursor : recentCursor;
+        if (cursor == null || !hasMoreOlder || loadingOlder) {
+            listener.onAlertsFetched(new ArrayList<>());
+            return;
+        }
+        loadingOlder = true;
+        firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath())
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .startAfter(cursor)
+                .limit(OLDER_ALERT_PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    loadingOlder = false;
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    List<Alert> page = toAlerts(docs);
+                    olderAlerts.addAll(page);
+                    if (!docs.isEmpty()) olderCursor = docs.get(docs.size() - 1);
+                    hasMoreOlder = docs.size() >= OLDER_ALERT_PAGE_SIZE;
+                    publishAllAlerts();
+                    listener.onAlertsFetched(page);
+                })
+                .addOnFailureListener(e -> {
+                    loadingOlder = false;
+                    Log.e(TAG, "Error loading older alerts", e);
+                    listener.onError(e.getMessage());
+                });
+    }
+
+    public boolean hasOlderAlerts() {
+        return hasMoreOlder;
+    }
+
+    private List<Alert> toAlerts(List<DocumentSnapshot> documents) {
+        List<Alert> alerts = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            try {
+                knownAlertKeys.add(document.getId());
+                Alert alert = createAlertFromSnapshot(document);
+                if (alert != null) {
+                    alert.setId(document.getId());
+                    alerts.add(alert);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error deserializing alert document: " + document.getId(), e);
+            }
+        }
+        return alerts;
+    }
+
     private Alert createAlertFromSnapshot(DocumentSnapshot document) {
         try {
             Alert alert = document.toObject(Alert.class);
@@ -147,27 +273,14 @@ public class AlertRepository {
             listener.onError("User not authenticated");
             return;
         }
-        Map<String, Object> alertMap = convertAlertToMap(alert);
-        String currentUserId = AuthManager.getInstance().getCurrentUserId();
-        alertMap.put("createdBy", currentUserId != null ? currentUserId : "client");
-        alertMap.put("source", "client");
-        alertMap.put("createdAt", firestoreManager.getServerTimestamp());
-
         firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath())
-                .add(alertMap)
+                .add(buildAlertDocument(alert))
                 .addOnSuccessListener(documentReference -> {
                     String alertId = documentReference.getId();
                     alert.setId(alertId);
                     listener.onAlertAdded(alertId);
                     Log.d(TAG, "Alert added: " + alertId);
-
-                    try {
-                        String title = getTitleForType(alert.getType());
-                        String body = alert.getMessage() != null ? alert.getMessage() : "";
-                        NotificationHelper.showNotification(application, title, body, alertId);
-                    } catch (Exception ex) {
-                        Log.e(TAG, "Failed to show local notification", ex);
-                    }
+                    showLocalNotification(alert, alertId);
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error adding alert", e);
@@ -175,35 +288,110 @@ public class AlertRepository {
                 });
     }
 
+    /**
+     * Creates the alert for this product and type unless one was already
+     * raised today.
+     */
     public void addAlertIfNotExists(String productId, String type, String message, long timestamp, OnAlertAddedListener listener) {
+        addAlertIfNotExists(productId, type, dayWindow(timestamp), message, timestamp, listener);
+    }
+
+    /**
+     * Creates the alert for (productId, type, window) at most once. The key
+     * is checked against the in-memory index and then claimed in Room, so
+     * repeat calls (an expiry sweep over every product, say) cost no network
+     * round trip. The key is also the document ID; a document already in the
+     * local Firestore cache is not rewritten, so a second device leaves the
+     * read flag and timestamp alone. The write is a plain set(), which the
+     * SDK queues while offline.
+     */
+    public void addAlertIfNotExists(String productId, String type, String window, String message, long timestamp, OnAlertAddedListener listener) {
         if (!firestoreManager.isUserAuthenticated()) {
             listener.onError("User not authenticated");
             return;
         }
-        firestoreManager.getDb()
-                .collection(firestoreManager.getUserAlertsPath())
-                .whereEqualTo("productId", productId)
-                .whereEqualTo("type", type)
-                .whereEqualTo("read", false)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    if (snapshot != null && !snapshot.isEmpty()) {
-                        listener.onAlertAdded(snapshot.getDocuments().get(0).getId());
-                    } else {
-                        Alert alert = new Alert();
-                        alert.setProductId(productId);
-                        alert.setType(type);
-                        alert.setMessage(message);
-                        alert.setRead(false);
-                        alert.setTimestamp(timestamp);
-                        addAlert(alert, listener);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error checking existing alerts", e);
-                    listener.onError(e.getMessage());
-                });
+        String key = dedupeKey(productId, type, window);
+        if (knownAlertKeys.contains(key)) {
+            listener.onAlertAdded(key);
+            return;
+        }
+        executors.dbWrite().execute(AppExecutors.Priority.LOW, () -> {
+            AlertDedupeEntity entry = new AlertDedupeEntity();
+            entry.dedupeKey = key;
+            entry.productId = productId;
+            entry.type = type;
+            entry.createdAt = System.currentTimeMillis();
+            boolean claimed = dedupeDao.claim(entry) != -1;
+            knownAlertKeys.add(key);
+            if (!claimed) {
+                listener.onAlertAdded(key);
+                return;
+            }
+            Alert alert = new Alert();
+            alert.setId(key);
+            alert.setProductId(productId);
+            alert.setType(type);
+            alert.setMessage(message);
+            alert.setRead(false);
+            alert.setTimestamp(timestamp);
+            DocumentReference ref = firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).document(key);
+            // The local cache answers without a round trip, also offline; an
+            // alert another device already raised (and maybe marked read) is
+            // left alone once it has synced here.
+            ref.get(Source.CACHE).addOnCompleteListener(cached -> {
+                if (cached.isSuccessful() && cached.getResult() != null && cached.getResult().exists()) {
+                    listener.onAlertAdded(key);
+                    return;
+                }
+                ref.set(buildAlertDocument(alert))
+                        .addOnSuccessListener(aVoid -> Log.d(TAG, "Alert synced: " + key))
+                        .addOnFailureListener(e -> {
+                            Log.e(TAG, "Error adding alert " + key, e);
+                            knownAlertKeys.remove(key);
+                            executors.dbWrite().execute(AppExecutors.Priority.LOW, () -> dedupeDao.release(key));
+                        });
+                // set() is queued locally and completes only once the server
+                // acknowledges it, so the alert is reported and shown now.
+                listener.onAlertAdded(key);
+                showLocalNotification(alert, key);
+            });
+        });
+    }
+
+    static String dedupeKey(String productId, String type, String window) {
+        String product = productId == null || productId.isEmpty() ? "none" : productId;
+        return (type + "_" + product + "_" + window).replace('/', '_');
+    }
+
+    static String dayWindow(long timestamp) {
+        return new SimpleDateFormat("yyyyMMdd", Locale.US).format(new Date(timestamp));
+    }
+
+    private void warmDedupeIndex() {
+        long cutoff = System.currentTimeMillis() - DEDUPE_RETENTION_MILLIS;
+        executors.dbWrite().execute(AppExecutors.Priority.LOW, () -> {
+            dedupeDao.deleteOlderThan(cutoff);
+            knownAlertKeys.addAll(dedupeDao.getKeysSinceSync(cutoff));
+        });
+    }
+
+    private Map<String, Object> buildAlertDocument(Alert alert) {
+        Map<String, Object> alertMap = convertAlertToMap(alert);
+        String currentUserId = AuthManager.getInstance().getCurrentUserId();
+        alertMap.put("createdBy", currentUserId != null ? currentUserId : "client");
+        alertMap.put("source", "client");
+        alertMap.put("createdAt", firestoreManager.getServerTimestamp());
+        return alertMap;
+    }
+
+    private void showLocalNotification(Alert alert, String alertId) {
+        try {
+            String title = getTitleForType(alert.getType());
+            String body = alert.getMessage() != null ? alert.getMessage() : "";
+            NotificationAggregator.getInstance(application).post(alert.getType(), title, body, alertId);
+        } catch (Exception ex) {
+            Log.e(TAG, "Failed to show local notification", ex);
+        }
     }
 
     public void markAlertAsRead(String alertId, OnAlertUpdatedListener listener) {
@@ -215,6 +403,10 @@ public class AlertRepository {
         updates.put("read", true);
         firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).document(alertId).update(updates)
                 .addOnSuccessListener(aVoid -> {
+                    for (Alert alert : olderAlerts) {
+                        if (alertId.equals(alert.getId())) alert.setRead(true);
+                    }
+                    publishAllAlerts();
                     listener.onAlertUpdated();
                     Log.d(TAG, "Alert marked as read: " + alertId);
                 })
@@ -224,29 +416,21 @@ public class AlertRepository {
                 });
     }
 
+    /**
+     * Marks every unread alert as read in chunked batch commits. The
+     * listener hears about progress per committed chunk and completes only
+     * after every chunk is confirmed.
+     */
     public void markAllAlertsAsRead(OnBatchUpdatedListener listener) {
         if (!firestoremanagerIsReady()) {
             listener.onError("User not authenticated");
             return;
         }
-        firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).whereEqualTo("read", false).get()
-                .addOnSuccessListener(snapshot -> {
-                    if (snapshot.isEmpty()) {
-                        listener.onBatchUpdated(0);
-                        return;
-                    }
-                    int count = 0;
-                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                        firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).document(doc.getId()).update("read", true);
-                        count++;
-                    }
-                    listener.onBatchUpdated(count);
-                    Log.d(TAG, "Marked " + count + " alerts as read");
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error marking all alerts as read", e);
-                    listener.onError(e.getMessage());
-                });
+        runBulk(firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).whereEqualTo("read", false),
+                (batch, ref) -> batch.update(ref, "read", true), "mark read", () -> {
+                    for (Alert alert : olderAlerts) alert.setRead(true);
+                    publishAllAlerts();
+                }, listener);
     }
     public void deleteAlert(String alertId) {
         if (!firestoremanagerIsReady() || alertId == null) return;
@@ -254,21 +438,99 @@ public class AlertRepository {
         firestoreManager.getDb().collection("alerts").document(ownerId)
                 .collection("items").document(alertId)
                 .delete()
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "Alert deleted"))
+                .addOnSuccessListener(aVoid -> {
+                    removeOlderAlert(alertId);
+                    Log.d(TAG, "Alert deleted");
+                })
                 .addOnFailureListener(e -> Log.e(TAG, "Error deleting alert", e));
     }
 
     public void clearAllAlerts() {
-        if (!firestoremanagerIsReady()) return;
-        String ownerId = firestoreManager.getBusinessOwnerId();
-        firestoreManager.getDb().collection("alerts").document(ownerId)
-                .collection("items").get().addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DocumentSnapshot doc : task.getResult()) {
-                            doc.getReference().delete();
-                        }
+        clearAllAlerts(new OnBatchUpdatedListener() {
+            @Override
+            public void onBatchUpdated(int count) {
+            }
+
+            @Override
+            public void onError(String error) {
+            }
+        });
+    }
+
+    /**
+     * Deletes every alert in chunked batch commits, reporting progress per
+     * chunk and completion once all deletes are confirmed.
+     */
+    public void clearAllAlerts(OnBatchUpdatedListener listener) {
+        if (!firestoremanagerIsReady()) {
+            listener.onError("User not authenticated");
+            return;
+        }
+        runBulk(firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()),
+                WriteBatch::delete, "clear", () -> {
+                    olderAlerts.clear();
+                    olderCursor = null;
+                    publishAllAlerts();
+                }, listener);
+    }
+
+    private void removeOlderAlert(String alertId) {
+        for (int i = olderAlerts.size() - 1; i >= 0; i--) {
+            if (alertId.equals(olderAlerts.get(i).getId())) olderAlerts.remove(i);
+        }
+        publishAllAlerts();
+    }
+
+    private interface BatchOperation {
+        void apply(WriteBatch batch, DocumentReference ref);
+    }
+
+    /**
+     * Reads the matching alerts once, then commits the operation in batches
+     * of MAX_BATCH_WRITES with at most MAX_BATCHES_IN_FLIGHT commits
+     * outstanding. Runs on the network lane; onCommitted runs on the main
+     * thread once every batch is confirmed, before the listener hears.
+     */
+    private void runBulk(Query query, BatchOperation operation, String label, Runnable onCommitted, OnBatchUpdatedListener listener) {
+        FirebaseFirestore db = firestoreManager.getDb();
+        executors.network().execute(AppExecutors.Priority.NORMAL, () -> {
+            int done = 0;
+            try {
+                QuerySnapshot snapshot = Tasks.await(query.get());
+                List<DocumentSnapshot> docs = snapshot.getDocuments();
+                int total = docs.size();
+                Deque<Task<Void>> inFlight = new ArrayDeque<>();
+                Deque<Integer> inFlightSizes = new ArrayDeque<>();
+                for (int start = 0; start < total; start += MAX_BATCH_WRITES) {
+                    int end = Math.min(total, start + MAX_BATCH_WRITES);
+                    WriteBatch batch = db.batch();
+                    for (int i = start; i < end; i++) {
+                        operation.apply(batch, docs.get(i).getReference());
+                    }
+                    if (inFlight.size() == MAX_BATCHES_IN_FLIGHT) {
+                        Tasks.await(inFlight.removeFirst());
+                        done += inFlightSizes.removeFirst();
+                        listener.onProgress(done, total);
                     }
+                    inFlight.addLast(batch.commit());
+                    inFlightSizes.addLast(end - start);
+                }
+                while (!inFlight.isEmpty()) {
+                    Tasks.await(inFlight.removeFirst());
+                    done += inFlightSizes.removeFirst();
+                    listener.onProgress(done, total);
+                }
+                Log.d(TAG, "Bulk " + label + " finished for " + done + " alerts");
+                int count = done;
+                executors.mainThread().execute(() -> {
+                    onCommitted.run();
+                    listener.onBatchUpdated(count);
                 });
+            } catch (Exception e) {
+                Log.e(TAG, "Bulk " + label + " failed after " + done + " alerts", e);
+                listener.onError(e.getMessage());
+            }
+        });
     }
 
     public void getAlertsByType(String type, OnAlertsFetchedListener listener) {
@@ -277,21 +539,7 @@ public class AlertRepository {
             return;
         }
         firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).whereEqualTo("type", type).get()
-                .addOnSuccessListener(snapshot -> {
-                    List<Alert> alerts = new ArrayList<>();
-                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                        try {
-                            Alert alert = createAlertFromSnapshot(doc);
-                            if (alert != null) {
-                                alert.setId(doc.getId());
-                                alerts.add(alert);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error deserializing alert: " + doc.getId(), e);
-                        }
-                    }
-                    listener.onAlertsFetched(alerts);
-                })
+                .addOnSuccessListener(snapshot -> listener.onAlertsFetched(toAlerts(snapshot.getDocuments())))
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error fetching alerts by type", e);
                     listener.onError(e.getMessage());
@@ -304,21 +552,7 @@ public class AlertRepository {
             return;
         }
         firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).whereEqualTo("productId", productId).get()
-                .addOnSuccessListener(snapshot -> {
-                    List<Alert> alerts = new ArrayList<>();
-                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                        try {
-                            Alert alert = createAlertFromSnapshot(doc);
-                            if (alert != null) {
-                                alert.setId(doc.getId());
-                                alerts.add(alert);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error deserializing alert: " + doc.getId(), e);
-                        }
-                    }
-                    listener.onAlertsFetched(alerts);
-                })
+                .addOnSuccessListener(snapshot -> listener.onAlertsFetched(toAlerts(snapshot.getDocuments())))
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error fetching alerts by product", e);
                     listener.onError(e.getMessage());
@@ -378,5 +612,8 @@ public class AlertRepository {
     public interface OnBatchUpdatedListener {
         void onBatchUpdated(int count);
         void onError(String error);
+
+        default void onProgress(int done, int total) {
+        }
     }
 }
\ No newline at end of file
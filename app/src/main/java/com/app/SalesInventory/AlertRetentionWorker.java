@@ -0,0 +1,140 @@
+package com.app.SalesInventory;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.List;
+
+/**
+ * Deletes read alerts older than the configured age. Pages through the
+ * alerts collection oldest first on the single-field timestamp index and
+ * filters on "read" in code, so no composite index is needed; unread
+ * alerts are never touched however old they are.
+ *
+ * Before purging it rewrites legacy server-written alerts whose timestamp
+ * is a Firestore Timestamp to epoch millis. Firestore orders Timestamps
+ * above every number, so until they are converted they would crowd the
+ * newest-first alert window. With KEY_NORMALIZE_ONLY it only does that.
+ * A complete pass records a per-owner flag so the one-off migration is not
+ * enqueued again on later launches.
+ */
+public class AlertRetentionWorker extends Worker {
+    private static final String TAG = "AlertRetentionWorker";
+    public static final String KEY_MAX_AGE_DAYS = "max_age_days";
+    public static final int DEFAULT_MAX_AGE_DAYS = 30;
+    public static final String KEY_NORMALIZE_ONLY = "normalize_only";
+    private static final int PAGE_SIZE = 450;
+    private static final int MAX_DELETES_PER_RUN = 5000;
+    private static final String PREFS_NAME = "alert_migrations";
+    private static final String SUFFIX_TIMESTAMPS_DONE = ":timestamps_done";
+
+    private final FirestoreManager firestoreManager;
+    private final FirebaseFirestore firestore;
+
+    public AlertRetentionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        firestoreManager = FirestoreManager.getInstance();
+        firestore = firestoreManager.getDb();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        if (!firestoreManager.isUserAuthenticated()) {
+            return Result.success();
+        }
+        int maxAgeDays = Math.max(1, getInputData().getInt(KEY_MAX_AGE_DAYS, DEFAULT_MAX_AGE_DAYS));
+        long cutoff = System.currentTimeMillis() - maxAgeDays * 24L * 60L * 60L * 1000L;
+        try {
+            int normalized = normalizeLegacyTimestamps();
+            if (normalized > 0) Log.d(TAG, "Converted " + normalized + " legacy alert timestamps");
+            if (!isStopped()) markTimestampMigrationDone(getApplicationContext(), firestoreManager.getUserAlertsPath());
+            if (getInputData().getBoolean(KEY_NORMALIZE_ONLY, false)) return Result.success();
+            int deleted = purge(cutoff, MAX_DELETES_PER_RUN);
+            Log.d(TAG, "Deleted " + deleted + " read alerts older than " + maxAgeDays + " days");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Alert retention failed", e);
+            return Result.retry();
+        }
+    }
+
+    static boolean isTimestampMigrationDone(Context context, String alertsPath) {
+        return prefs(context).getBoolean(alertsPath + SUFFIX_TIMESTAMPS_DONE, false);
+    }
+
+    private static void markTimestampMigrationDone(Context context, String alertsPath) {
+        prefs(context).edit().putBoolean(alertsPath + SUFFIX_TIMESTAMPS_DONE, true).apply();
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * A range filter only matches values of its own type, so a lower bound
+     * of the epoch Timestamp selects exactly the legacy documents.
+     */
+    private int normalizeLegacyTimestamps() throws Exception {
+        int converted = 0;
+        while (!isStopped()) {
+            QuerySnapshot snapshot = Tasks.await(firestore.collection(firestoreManager.getUserAlertsPath())
+                    .whereGreaterThanOrEqualTo("timestamp", new Timestamp(0, 0))
+                    .limit(PAGE_SIZE)
+                    .get());
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            if (docs.isEmpty()) break;
+            WriteBatch batch = firestore.batch();
+            for (DocumentSnapshot doc : docs) {
+                Timestamp ts = doc.getTimestamp("timestamp");
+                batch.update(doc.getReference(), "timestamp", ts == null ? 0L : ts.toDate().getTime());
+            }
+            Tasks.await(batch.commit());
+            converted += docs.size();
+            if (docs.size() < PAGE_SIZE) break;
+        }
+        return converted;
+    }
+
+    private int purge(long cutoff, int budget) throws Exception {
+        int deleted = 0;
+        DocumentSnapshot cursor = null;
+        while (deleted < budget && !isStopped()) {
+            Query query = firestore.collection(firestoreManager.getUserAlertsPath())
+                    .whereLessThan("timestamp", cutoff)
+                    .orderBy("timestamp")
+                    .limit(PAGE_SIZE);
+            if (cursor != null) query = query.startAfter(cursor);
+            QuerySnapshot snapshot = Tasks.await(query.get());
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            if (docs.isEmpty()) break;
+            WriteBatch batch = firestore.batch();
+            int inBatch = 0;
+            for (DocumentSnapshot doc : docs) {
+                if (!Boolean.TRUE.equals(doc.getBoolean("read"))) continue;
+                batch.delete(doc.getReference());
+                if (++inBatch + deleted >= budget) break;
+            }
+            if (inBatch > 0) {
+                Tasks.await(batch.commit());
+                deleted += inBatch;
+            }
+            if (docs.size() < PAGE_SIZE) break;
+            cursor = docs.get(docs.size() - 1);
+        }
+        return deleted;
+    }
+}
@@ -8,12 +8,15 @@ import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
-@Database(entities = {ProductEntity.class, SalesOrderEntity.class, SalesOrderItemEntity.class}, version = 7, exportSchema = true)
+@Database(entities = {ProductEntity.class, SalesOrderEntity.class, SalesOrderItemEntity.class, DailySalesRollupEntity.class, ProductFtsEntity.class, AlertDedupeEntity.class, StockMovementEntity.class}, version = 17, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     private static volatile AppDatabase INSTANCE;
 
     public abstract ProductDao productDao();
     public abstract SalesDao salesDao();
+    public abstract SalesRollupDao salesRollupDao();
+    public abstract AlertDedupeDao alertDedupeDao();
+    public abstract StockMovementDao stockMovementDao();
 
     private static final Migration MIGRATION_6_7 = new Migration(6, 7) {
         @Override
@@ -22,6 +25,115 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
 
+    private static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE products ADD COLUMN imageUploadAttempts INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE products ADD COLUMN imageUploadSession TEXT");
+        }
+    };
+
+    private static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE products ADD COLUMN imageHash TEXT");
+        }
+    };
+
+    private static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE products ADD COLUMN syncAttempts INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE products ADD COLUMN nextSyncAt INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE products ADD COLUMN syncPriority INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    private static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE products ADD COLUMN dirtyFields TEXT");
+            database.execSQL("ALTER TABLE products ADD COLUMN pendingQuantityDelta INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    private static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN deliveryType TEXT");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN deliveryName TEXT");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN deliveryPhone TEXT");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN deliveryAddress TEXT");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN deliveryPaymentMethod TEXT");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN syncState TEXT");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN syncAttempts INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE sales_orders ADD COLUMN nextSyncAt INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    private static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS daily_sales_rollups (dayKey TEXT NOT NULL, dayStart INTEGER NOT NULL, revenue REAL NOT NULL, transactionCount INTEGER NOT NULL, deliveryCount INTEGER NOT NULL, deliveryRevenue REAL NOT NULL, walkInCount INTEGER NOT NULL, walkInRevenue REAL NOT NULL, productQuantities TEXT, lastUpdated INTEGER NOT NULL, PRIMARY KEY(dayKey))");
+        }
+    };
+
+    private static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // productId becomes unique: blank ids are local-only rows, and any
+            // duplicated remote id keeps one row. A row with unsynced changes
+            // wins over synced copies so pending edits are not lost, then the
+            // most recently updated, then the newest local row.
+            database.execSQL("UPDATE products SET productId = NULL WHERE productId = ''");
+            database.execSQL("DELETE FROM products WHERE productId IS NOT NULL AND localId <> (SELECT keep.localId FROM products AS keep WHERE keep.productId = products.productId "
+                    + "ORDER BY CASE WHEN keep.syncState IS NULL OR keep.syncState = 'SYNCED' THEN 1 ELSE 0 END ASC, keep.lastUpdated DESC, keep.localId DESC LIMIT 1)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_products_productId ON products (productId)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_products_syncState ON products (syncState)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_products_expiryDate ON products (expiryDate)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_products_categoryName ON products (categoryName)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_products_barcode ON products (barcode)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_products_isActive ON products (isActive)");
+        }
+    };
+
+    private static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Same table and sync triggers Room generates for ProductFtsEntity,
+            // then a rebuild so existing products become searchable.
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `products_fts` USING FTS4(`productName` TEXT, `description` TEXT, `categoryName` TEXT, `barcode` TEXT, tokenize=unicode61, content=`products`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_products_fts_BEFORE_UPDATE BEFORE UPDATE ON `products` BEGIN DELETE FROM `products_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_products_fts_BEFORE_DELETE BEFORE DELETE ON `products` BEGIN DELETE FROM `products_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_products_fts_AFTER_UPDATE AFTER UPDATE ON `products` BEGIN INSERT INTO `products_fts`(`docid`, `productName`, `description`, `categoryName`, `barcode`) VALUES (NEW.`rowid`, NEW.`productName`, NEW.`description`, NEW.`categoryName`, NEW.`barcode`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_products_fts_AFTER_INSERT AFTER INSERT ON `products` BEGIN INSERT INTO `products_fts`(`docid`, `productName`, `description`, `categoryName`, `barcode`) VALUES (NEW.`rowid`, NEW.`productName`, NEW.`description`, NEW.`categoryName`, NEW.`barcode`); END");
+            database.execSQL("INSERT INTO products_fts(products_fts) VALUES('rebuild')");
+        }
+    };
+
+    private static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS alert_dedupe (dedupeKey TEXT NOT NULL, productId TEXT, type TEXT, createdAt INTEGER NOT NULL, PRIMARY KEY(dedupeKey))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_alert_dedupe_createdAt ON alert_dedupe (createdAt)");
+        }
+    };
+
+    private static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS stock_movements (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, productId TEXT, productName TEXT, movementType TEXT NOT NULL, quantityDelta INTEGER NOT NULL, balanceAfter INTEGER, reference TEXT, createdAt INTEGER NOT NULL)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_stock_movements_productId_createdAt ON stock_movements (productId, createdAt)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_stock_movements_createdAt ON stock_movements (createdAt)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_stock_movements_movementType_createdAt ON stock_movements (movementType, createdAt)");
+            // Seed the ledger with the sales already held locally.
+            database.execSQL("INSERT INTO stock_movements (productId, productName, movementType, quantityDelta, balanceAfter, reference, createdAt) "
+                    + "SELECT i.productId, i.productName, 'SALE', -i.quantity, NULL, o.remoteId, o.orderDate "
+                    + "FROM sales_order_items i JOIN sales_orders o ON o.localId = i.orderLocalId "
+                    + "WHERE i.productId IS NOT NULL AND i.productId != ''");
+        }
+    };
+
     public static AppDatabase getInstance(Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -31,7 +143,7 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "sales_inventory_db"
                             )
-                            .addMigrations(MIGRATION_6_7)
+                            .addMigrations(MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12, MIGRATION_12_13, MIGRATION_13_14, MIGRATION_14_15, MIGRATION_15_16, MIGRATION_16_17)
                             .build();
                 }
             }
@@ -0,0 +1,183 @@
+package com.app.SalesInventory;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * App-wide bounded thread pools. Repositories submit work here instead of
+ * creating their own executors so the thread count stays flat under load.
+ */
+public class AppExecutors {
+    private static final String TAG = "AppExecutors";
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+    private static final long SLOW_WAIT_MILLIS = 1000L;
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private static AppExecutors instance;
+
+    private final Lane dbWrite;
+    private final Lane dbRead;
+    private final Lane network;
+    private final Lane cpu;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        int cores = Math.max(2, Runtime.getRuntime().availableProcessors());
+        dbWrite = new Lane("db-write", 1);
+        dbRead = new Lane("db-read", Math.min(4, cores));
+        network = new Lane("network", 4);
+        cpu = new Lane("cpu", cores);
+        Handler handler = new Handler(Looper.getMainLooper());
+        mainThread = handler::post;
+    }
+
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    public Lane dbWrite() {
+        return dbWrite;
+    }
+
+    public Lane dbRead() {
+        return dbRead;
+    }
+
+    public Lane network() {
+        return network;
+    }
+
+    public Lane cpu() {
+        return cpu;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    public String describeStats() {
+        return dbWrite.describeStats() + "; " + dbRead.describeStats() + "; " + network.describeStats() + "; " + cpu.describeStats();
+    }
+
+    public static class Lane implements Executor {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong completedCount = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+
+        Lane(String name, int threads) {
+            this.name = name;
+            AtomicInteger threadNumber = new AtomicInteger(1);
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, "app-" + name + "-" + threadNumber.getAndIncrement());
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            };
+            executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), factory);
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            execute(Priority.NORMAL, command);
+        }
+
+        public void execute(Priority priority, @NonNull Runnable command) {
+            executor.execute(new PrioritizedTask(priority == null ? Priority.NORMAL : priority, sequence.getAndIncrement(), command));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getQueueDepth() {
+            return executor.getQueue().size();
+        }
+
+        public int getActiveCount() {
+            return executor.getActiveCount();
+        }
+
+        public long getCompletedCount() {
+            return completedCount.get();
+        }
+
+        public long getAverageWaitMillis() {
+            long done = completedCount.get();
+            return done == 0 ? 0 : totalWaitMillis.get() / done;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis.get();
+        }
+
+        public String describeStats() {
+            return name + "[queued=" + getQueueDepth() + ", active=" + getActiveCount() + ", done=" + getCompletedCount() + ", avgWaitMs=" + getAverageWaitMillis() + ", maxWaitMs=" + getMaxWaitMillis() + "]";
+        }
+
+        private void recordWait(long waited) {
+            totalWaitMillis.addAndGet(waited);
+            completedCount.incrementAndGet();
+            long currentMax;
+            do {
+                currentMax = maxWaitMillis.get();
+                if (waited <= currentMax) break;
+            } while (!maxWaitMillis.compareAndSet(currentMax, waited));
+            if (waited >= SLOW_WAIT_MILLIS) {
+                Log.w(TAG, "Task waited " + waited + "ms in " + describeStats());
+            }
+        }
+
+        private class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+            private final Priority priority;
+            private final long order;
+            private final Runnable delegate;
+            private final long enqueuedAt;
+
+            PrioritizedTask(Priority priority, long order, Runnable delegate) {
+                this.priority = priority;
+                this.order = order;
+                this.delegate = delegate;
+                this.enqueuedAt = System.currentTimeMillis();
+            }
+
+            @Override
+            public void run() {
+                recordWait(System.currentTimeMillis() - enqueuedAt);
+                try {
+                    delegate.run();
+                } catch (Exception e) {
+                    Log.e(TAG, "Task failed on " + name, e);
+                }
+            }
+
+            @Override
+            public int compareTo(PrioritizedTask other) {
+                int byPriority = priority.compareTo(other.priority);
+                if (byPriority != 0) return byPriority;
+                return Long.compare(order, other.order);
+            }
+        }
+    }
+}
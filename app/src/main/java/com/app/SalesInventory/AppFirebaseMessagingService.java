@@ -13,8 +13,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Firebase messaging service — delegates notification display to NotificationHelper so
- * all notifications (local + push) use the same channel and tap-behavior.
+ * Firebase messaging service — delegates notification display to NotificationAggregator so
+ * all notifications (local + push) share the same channel, grouping and tap-behavior.
  *
  * Tapping a notification that contains an "alertId" will open StockAlertsActivity with that extra.
  * StockAlertsActivity will mark that alert as read automatically when opened.
@@ -28,12 +28,14 @@ public class AppFirebaseMessagingService extends FirebaseMessagingService {
         String title = "";
         String body = "";
         String alertId = null;
+        String type = null;
 
         if (remoteMessage.getData() != null && !remoteMessage.getData().isEmpty()) {
             Map<String, String> data = remoteMessage.getData();
             if (data.containsKey("title")) title = data.get("title");
             if (data.containsKey("body")) body = data.get("body");
             if (data.containsKey("alertId")) alertId = data.get("alertId");
+            if (data.containsKey("type")) type = data.get("type");
         }
 
         if ((title == null || title.isEmpty()) && remoteMessage.getNotification() != null) {
@@ -42,10 +44,10 @@ public class AppFirebaseMessagingService extends FirebaseMessagingService {
             body = n.getBody() != null ? n.getBody() : "";
         }
 
-        // Show notification via helper to keep behavior consistent with local alerts
+        // Route through the aggregator so pushes coalesce with local alerts
         try {
-            NotificationHelper.showNotification(
-                    getApplicationContext(),
+            NotificationAggregator.getInstance(getApplicationContext()).post(
+                    type,
                     (title == null || title.isEmpty()) ? "Alert" : title,
                     (body == null ? "" : body),
                     alertId
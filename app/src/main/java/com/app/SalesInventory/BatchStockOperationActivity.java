@@ -307,7 +307,7 @@ public class BatchStockOperationActivity extends BaseActivity {
                                 newQuantity = oldQuantity;
                         }
                         int finalNewQuantity = newQuantity;
-                        productRepository.updateProductQuantity(product.getProductId(), finalNewQuantity, new ProductRepository.OnProductUpdatedListener() {
+                        productRepository.updateProductQuantity(product.getProductId(), finalNewQuantity, StockMovementEntity.TYPE_BATCH, batchOpId, new ProductRepository.OnProductUpdatedListener() {
                             @Override
                             public void onProductUpdated() {
                             }
@@ -59,6 +59,7 @@ public class BusinessDataManager {
                 List<Map<String, Object>> list = new ArrayList<>();
                 if (snapshots != null) {
                     for (DocumentSnapshot d : snapshots.getDocuments()) {
+                        if (ProductRemoteSyncer.isTombstone(d)) continue;
                         Map<String, Object> m = d.getData() != null ? new HashMap<>(d.getData()) : new HashMap<>();
                         m.put("id", d.getId());
                         list.add(m);
@@ -0,0 +1,21 @@
+package com.app.SalesInventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "daily_sales_rollups")
+public class DailySalesRollupEntity {
+    @PrimaryKey
+    @NonNull
+    public String dayKey = "";
+    public long dayStart;
+    public double revenue;
+    public int transactionCount;
+    public int deliveryCount;
+    public double deliveryRevenue;
+    public int walkInCount;
+    public double walkInRevenue;
+    public String productQuantities;
+    public long lastUpdated;
+}
@@ -84,6 +84,20 @@ public class DashboardMetrics {
         this.lastUpdated = lastUpdated;
     }
 
+    /**
+     * True when any count differs or a money figure moved by at least one
+     * centavo. lastUpdated is ignored.
+     */
+    public boolean differsFrom(DashboardMetrics other) {
+        if (other == null) return true;
+        return lowStockCount != other.lowStockCount
+                || pendingOrdersCount != other.pendingOrdersCount
+                || nearExpiryCount != other.nearExpiryCount
+                || Math.abs(totalSalesToday - other.totalSalesToday) >= 0.01
+                || Math.abs(totalInventoryValue - other.totalInventoryValue) >= 0.01
+                || Math.abs(revenue - other.revenue) >= 0.01;
+    }
+
     public Map<String, Object> toMap() {
         Map<String, Object> m = new HashMap<>();
         m.put("totalSalesToday", totalSalesToday);
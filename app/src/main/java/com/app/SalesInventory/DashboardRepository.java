@@ -1,6 +1,8 @@
 package com.app.SalesInventory;
 
 import static com.app.SalesInventory.EditProfil.TAG;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
@@ -27,16 +29,33 @@ public class DashboardRepository {
     private SalesRepository salesRepository;
     private ProductRepository productRepository;
     private AlertRepository alertRepository;
+    private SalesRollupRepository rollupRepository;
     private final MediatorLiveData<DashboardMetrics> metricsLiveData = new MediatorLiveData<>();
     private boolean metricsSourcesAdded = false;
     private DashboardRepository.OnMetricsLoadedListener metricsListener;
     private final FirebaseFirestore firestore;
     private int pendingPOCount = 0;
+    private static final long RECOMPUTE_DEBOUNCE_MILLIS = 250;
+    private static final long MIN_METRICS_WRITE_INTERVAL_MILLIS = 60_000;
+    private static final long EXPIRY_BUCKET_MILLIS = 60L * 60L * 1000L;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Runnable recomputeTask;
+    private InventoryMetrics lastInventoryInput;
+    private double lastSalesInput = Double.NaN;
+    private double lastRevenueInput = Double.NaN;
+    private int lastPendingPOInput = -1;
+    private long lastExpiryBucket = -1;
+    private DashboardMetrics lastPublishedMetrics;
+    private DashboardMetrics lastSavedMetrics;
+    private long lastMetricsWriteAt = 0;
+    private boolean metricsWriteScheduled = false;
+    private boolean purchaseOrderListenerAdded = false;
 
     public DashboardRepository() {
         salesRepository = SalesRepository.getInstance();
         productRepository = ProductRepository.getInstance(SalesInventoryApplication.getInstance());
         alertRepository = AlertRepository.getInstance(SalesInventoryApplication.getInstance());
+        rollupRepository = SalesRollupRepository.getInstance(SalesInventoryApplication.getInstance());
         firestore = FirestoreManager.getInstance().getDb();
     }
 
@@ -45,12 +64,13 @@ public class DashboardRepository {
         this.pendingPOCount = 0;
 
         LiveData<Double> totalSalesLive = salesRepository.getTotalSalesToday();
-        LiveData<List<Product>> productsLive = productRepository.getAllProducts();
+        LiveData<InventoryMetrics> inventoryLive = productRepository.getInventoryMetrics();
         LiveData<List<Alert>> alertsLive = alertRepository.getUnreadAlerts();
         LiveData<Double> revenueLive = salesRepository.getTotalMonthlyRevenue();
         String ownerId = FirestoreManager.getInstance().getBusinessOwnerId();
 
-        if (ownerId != null && !ownerId.isEmpty()) {
+        if (ownerId != null && !ownerId.isEmpty() && !purchaseOrderListenerAdded) {
+            purchaseOrderListenerAdded = true;
             FirebaseDatabase.getInstance().getReference("PurchaseOrders")
                     .orderByChild("ownerAdminId")
                     .equalTo(ownerId)
@@ -65,7 +85,7 @@ public class DashboardRepository {
                                 }
                             }
                             pendingPOCount = count;
-                            recomputeMetrics(totalSalesLive, productsLive, alertsLive, revenueLive);
+                            scheduleRecompute(totalSalesLive, inventoryLive, revenueLive);
                         }
                         @Override
                         public void onCancelled(@NonNull DatabaseError error) {
@@ -76,10 +96,10 @@ public class DashboardRepository {
 
         if (!metricsSourcesAdded) {
             metricsSourcesAdded = true;
-            metricsLiveData.addSource(totalSalesLive, v -> recomputeMetrics(totalSalesLive, productsLive, alertsLive, revenueLive));
-            metricsLiveData.addSource(productsLive, v -> recomputeMetrics(totalSalesLive, productsLive, alertsLive, revenueLive));
-            metricsLiveData.addSource(alertsLive, v -> recomputeMetrics(totalSalesLive, productsLive, alertsLive, revenueLive));
-            metricsLiveData.addSource(revenueLive, v -> recomputeMetrics(totalSalesLive, productsLive, alertsLive, revenueLive));
+            metricsLiveData.addSource(totalSalesLive, v -> scheduleRecompute(totalSalesLive, inventoryLive, revenueLive));
+            metricsLiveData.addSource(inventoryLive, v -> scheduleRecompute(totalSalesLive, inventoryLive, revenueLive));
+            metricsLiveData.addSource(alertsLive, v -> scheduleRecompute(totalSalesLive, inventoryLive, revenueLive));
+            metricsLiveData.addSource(revenueLive, v -> scheduleRecompute(totalSalesLive, inventoryLive, revenueLive));
             metricsLiveData.observeForever(metrics -> {
                 if (metrics != null && metricsListener != null) {
                     metricsListener.onMetricsLoaded(metrics);
@@ -89,76 +109,107 @@ public class DashboardRepository {
             if (ownerId != null && !ownerId.isEmpty()) {
                 firestore.collection("dashboard").document(ownerId)
                         .addSnapshotListener((snapshot, e) -> {
-                            if (snapshot != null && snapshot.exists()) {
-                                metricsLiveData.postValue(DashboardMetrics.fromMap(snapshot.getData()));
-                            }
+                            // Only used as a placeholder until the first local computation;
+                            // afterwards this is just the echo of our own write.
+                            if (snapshot == null || !snapshot.exists()) return;
+                            if (snapshot.getMetadata().hasPendingWrites() || lastPublishedMetrics != null) return;
+                            metricsLiveData.setValue(DashboardMetrics.fromMap(snapshot.getData()));
                         });
             }
         }
 
-        recomputeMetrics(totalSalesLive, productsLive, alertsLive, revenueLive);
+        scheduleRecompute(totalSalesLive, inventoryLive, revenueLive);
+    }
+
+    private void scheduleRecompute(LiveData<Double> totalSalesLive,
+                                   LiveData<InventoryMetrics> inventoryLive,
+                                   LiveData<Double> revenueLive) {
+        if (recomputeTask != null) {
+            mainHandler.removeCallbacks(recomputeTask);
+        }
+        recomputeTask = () -> {
+            recomputeTask = null;
+            recomputeMetrics(totalSalesLive, inventoryLive, revenueLive);
+        };
+        mainHandler.postDelayed(recomputeTask, RECOMPUTE_DEBOUNCE_MILLIS);
     }
 
     private void recomputeMetrics(LiveData<Double> totalSalesLive,
-                                  LiveData<List<Product>> productsLive,
-                                  LiveData<List<Alert>> alertsLive,
+                                  LiveData<InventoryMetrics> inventoryLive,
                                   LiveData<Double> revenueLive) {
         Double totalSales = totalSalesLive.getValue();
-        List<Product> products = productsLive.getValue();
+        InventoryMetrics inventory = inventoryLive.getValue();
+        double salesInput = totalSales != null ? totalSales : 0.0;
+        double revenueInput = revenueLive.getValue() != null ? revenueLive.getValue() : 0.0;
+        long expiryBucket = System.currentTimeMillis() / EXPIRY_BUCKET_MILLIS;
+        if (inventory == lastInventoryInput
+                && salesInput == lastSalesInput
+                && revenueInput == lastRevenueInput
+                && pendingPOCount == lastPendingPOInput
+                && expiryBucket == lastExpiryBucket) {
+            return;
+        }
+        lastInventoryInput = inventory;
+        lastSalesInput = salesInput;
+        lastRevenueInput = revenueInput;
+        lastPendingPOInput = pendingPOCount;
+        lastExpiryBucket = expiryBucket;
 
-        double inventoryValue = 0;
-        int lowOrCriticalCount = 0;
-        int nearExpiryCount = 0;
         long now = System.currentTimeMillis();
-
-        if (products != null) {
-            for (Product p : products) {
-                if (p == null || !p.isActive()) continue;
-                if ("Menu".equalsIgnoreCase(p.getProductType())) continue;
-
-                inventoryValue += (p.getQuantity() * p.getCostPrice());
-
-                if (p.isCriticalStock() || p.isLowStock()) {
-                    lowOrCriticalCount++;
-                }
-
-                long expiry = p.getExpiryDate();
-                if (expiry > 0) {
-                    long diffMillis = expiry - now;
-                    long days = diffMillis / (24L * 60L * 60L * 1000L);
-                    if (diffMillis <= 0 || days <= 7) nearExpiryCount++;
-                }
-            }
-        }
+        double inventoryValue = inventory != null ? inventory.getTotalCostValue() : 0;
+        int lowOrCriticalCount = inventory != null ? inventory.getLowOrCriticalCount() : 0;
+        int nearExpiryCount = inventory != null ? inventory.getNearExpiryCount(now) : 0;
 
         DashboardMetrics metrics = new DashboardMetrics(
-                totalSales != null ? totalSales : 0.0,
+                salesInput,
                 inventoryValue,
                 lowOrCriticalCount,
                 pendingPOCount,
                 nearExpiryCount,
-                revenueLive.getValue() != null ? revenueLive.getValue() : 0.0
+                revenueInput
         );
+        if (!metrics.differsFrom(lastPublishedMetrics)) return;
+        lastPublishedMetrics = metrics;
         metricsLiveData.setValue(metrics);
-        saveMetricsToFirestore(metrics);
+        scheduleMetricsWrite();
+    }
+
+    /**
+     * Writes the latest metrics at most once per MIN_METRICS_WRITE_INTERVAL_MILLIS
+     * and only when they differ from what was last written. A change inside
+     * the window is sent once the window closes.
+     */
+    private void scheduleMetricsWrite() {
+        if (metricsWriteScheduled) return;
+        long wait = lastMetricsWriteAt + MIN_METRICS_WRITE_INTERVAL_MILLIS - System.currentTimeMillis();
+        if (wait <= 0) {
+            saveMetricsToFirestore();
+            return;
+        }
+        metricsWriteScheduled = true;
+        mainHandler.postDelayed(() -> {
+            metricsWriteScheduled = false;
+            saveMetricsToFirestore();
+        }, wait);
     }
 
-    private void saveMetricsToFirestore(DashboardMetrics metrics) {
+    private void saveMetricsToFirestore() {
+        DashboardMetrics metrics = lastPublishedMetrics;
+        if (metrics == null || !metrics.differsFrom(lastSavedMetrics)) return;
         String owner = FirestoreManager.getInstance().getBusinessOwnerId();
         if (owner == null || owner.isEmpty()) return;
         try {
             firestore.collection("dashboard")
                     .document(owner)
                     .set(metrics.toMap());
+            lastSavedMetrics = metrics;
+            lastMetricsWriteAt = System.currentTimeMillis();
         } catch (Exception ignored) {}
     }
 
     public void refreshMetrics() {
         if (salesRepository != null) {
-            salesRepository.reloadAllSales();
-            salesRepository.reloadTodaySales();
-            salesRepository.reloadMonthlySales();
-            salesRepository.reloadRecentSales();
+            salesRepository.refreshSales();
         }
         if (productRepository != null) {
             productRepository.refreshProducts();
@@ -195,27 +246,25 @@ public class DashboardRepository {
         });
     }
 
-    public List<Entry> getSalesTrendData(List<Sales> allSales) {
+    /**
+     * Seven calendar days of revenue read from the local rollup mirror.
+     * Blocking; call from a background lane.
+     */
+    public List<Entry> getSalesTrendData() {
         List<Entry> entries = new ArrayList<>();
-        if (allSales == null || allSales.isEmpty()) return entries;
         int days = 7;
-        long now = System.currentTimeMillis();
-        long oneDayMillis = 24L * 60L * 60L * 1000L;
-        Map<Integer, Double> dayIndexToAmount = new HashMap<>();
-        for (Sales s : allSales) {
-            long ts = s.getTimestamp() > 0 ? s.getTimestamp() : s.getDate();
-            if (ts <= 0) continue;
-            long diff = now - ts;
-            int dayOffset = (int) (diff / oneDayMillis);
-            if (dayOffset < 0 || dayOffset >= days) continue;
-            int index = days - 1 - dayOffset;
-            double amount = s.getTotalPrice();
-            Double current = dayIndexToAmount.get(index);
-            dayIndexToAmount.put(index, (current != null ? current : 0.0) + amount);
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(SalesRollupRepository.dayStart(System.currentTimeMillis()));
+        cal.add(Calendar.DAY_OF_MONTH, -(days - 1));
+        long since = cal.getTimeInMillis();
+        Map<String, Double> revenueByDay = new HashMap<>();
+        for (DailySalesRollupEntity rollup : rollupRepository.getRollupsSinceSync(since)) {
+            revenueByDay.put(rollup.dayKey, rollup.revenue);
         }
         for (int i = 0; i < days; i++) {
-            double value = dayIndexToAmount.get(i) != null ? dayIndexToAmount.get(i) : 0.0;
-            entries.add(new Entry(i, (float) value));
+            Double value = revenueByDay.get(SalesRollupRepository.dayKey(cal.getTimeInMillis()));
+            entries.add(new Entry(i, value != null ? value.floatValue() : 0f));
+            cal.add(Calendar.DAY_OF_MONTH, 1);
         }
         return entries;
     }
@@ -255,18 +304,9 @@ public class DashboardRepository {
         return new TopProductsResult(entries, labels);
     }
 
-    public int[] getInventoryStatusBreakdown(List<Product> products) {
-        int inStock = 0, low = 0, critical = 0, out = 0;
-        if (products != null) {
-            for (Product p : products) {
-                int qty = p.getQuantity();
-                if (qty <= 0) out++;
-                else if (p.isCriticalStock()) critical++;
-                else if (p.isLowStock()) low++;
-                else inStock++;
-            }
-        }
-        return new int[]{inStock, low, critical, out};
+    public int[] getInventoryStatusBreakdown() {
+        InventoryMetrics inventory = productRepository.getInventoryMetrics().getValue();
+        return inventory != null ? inventory.getStatusBreakdown() : new int[]{0, 0, 0, 0};
     }
 
     public interface OnMetricsLoadedListener {
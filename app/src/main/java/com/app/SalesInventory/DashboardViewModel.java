@@ -23,8 +23,6 @@ import com.github.mikephil.charting.data.PieEntry;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class DashboardViewModel extends AndroidViewModel {
     private final DashboardRepository repository;
@@ -32,7 +30,7 @@ public class DashboardViewModel extends AndroidViewModel {
     private final MutableLiveData<List<RecentActivity>> recentActivities;
     private final MutableLiveData<Boolean> isLoading;
     private final MutableLiveData<String> errorMessage;
-    private final ExecutorService executorService;
+    private final AppExecutors.Lane executorService;
 
     private final SalesRepository salesRepository;
     private final ProductRepository productRepository;
@@ -44,7 +42,7 @@ public class DashboardViewModel extends AndroidViewModel {
         recentActivities = new MutableLiveData<>();
         isLoading = new MutableLiveData<>(false);
         errorMessage = new MutableLiveData<>();
-        executorService = Executors.newSingleThreadExecutor();
+        executorService = AppExecutors.getInstance().cpu();
         salesRepository = SalesRepository.getInstance();
         productRepository = ProductRepository.getInstance(SalesInventoryApplication.getInstance());
     }
@@ -122,11 +120,11 @@ public class DashboardViewModel extends AndroidViewModel {
                 List<Sales> allSales = salesLive.getValue();
                 List<Product> products = productsLive.getValue();
 
-                List<Entry> salesTrendEntries = repository.getSalesTrendData(allSales);
+                List<Entry> salesTrendEntries = repository.getSalesTrendData();
                 TopProductsResult topProductsResult = repository.getTopProductsData(allSales, products);
                 List<BarEntry> topProductEntries = topProductsResult.getEntries();
                 List<String> topProductNames = topProductsResult.getProductNames();
-                int[] invStatus = repository.getInventoryStatusBreakdown(products);
+                int[] invStatus = repository.getInventoryStatusBreakdown();
 
                 if (salesTrendChart != null) {
                     setupSalesTrendChart(salesTrendChart, salesTrendEntries);
@@ -260,10 +258,4 @@ public class DashboardViewModel extends AndroidViewModel {
             chart.invalidate();
         });
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        executorService.shutdown();
-    }
 }
\ No newline at end of file
@@ -73,6 +73,14 @@ public class FirestoreManager {
         return "sales/" + getBusinessOwnerId() + "/items";
     }
 
+    public String getUserOrdersPath() {
+        return "orders/" + getBusinessOwnerId() + "/items";
+    }
+
+    public String getUserSalesRollupsPath() {
+        return "salesRollups/" + getBusinessOwnerId() + "/items";
+    }
+
     public String getUserAdjustmentsPath() {
         return "adjustments/" + getBusinessOwnerId() + "/items";
     }
@@ -2,7 +2,7 @@ package com.app.SalesInventory;
 
 import android.util.Log;
 import androidx.lifecycle.MutableLiveData;
-import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.ListenerRegistration;
 import java.util.ArrayList;
@@ -39,38 +39,6 @@ public class FirestoreSyncListener {
         categoriesSyncStatus.setValue(new SyncStatus(SyncStatus.Status.OFFLINE, "Initializing"));
     }
 
-    public void listenToProducts(OnProductsChangedListener listener) {
-        if (!firestoreManager.isUserAuthenticated()) {
-            Log.w(TAG, "User not authenticated for products listener");
-            return;
-        }
-        productsSyncStatus.setValue(new SyncStatus(SyncStatus.Status.SYNCING, "Connecting to products"));
-        ListenerRegistration registration = firestoreManager.getDb().collection(firestoreManager.getUserProductsPath()).addSnapshotListener((value, error) -> {
-            if (error != null) {
-                productsSyncStatus.setValue(new SyncStatus(SyncStatus.Status.ERROR, error.getMessage()));
-                return;
-            }
-            if (value != null) {
-                productsSyncStatus.setValue(new SyncStatus(SyncStatus.Status.SYNCED, "Products synced: " + value.size()));
-                if (listener != null) {
-                    listener.onProductsChanged(value);
-                }
-                try {
-                    ProductRepository repo = ProductRepository.getInstance(SalesInventoryApplication.getInstance());
-                    for (DocumentSnapshot document : value.getDocuments()) {
-                        Product p = document.toObject(Product.class);
-                        if (p != null) {
-                            p.setProductId(document.getId());
-                            repo.upsertFromRemote(p);
-                        }
-                    }
-                } catch (Exception e) {
-                }
-            }
-        });
-        activeListeners.add(registration);
-    }
-
     public void listenToSales(OnSalesChangedListener listener) {
         if (!firestoreManager.isUserAuthenticated()) {
             return;
@@ -111,12 +79,20 @@ public class FirestoreSyncListener {
         activeListeners.add(registration);
     }
 
-    public void listenToAlerts(OnAlertsChangedListener listener) {
+    /**
+     * Listens to the newest {@code limit} alerts only; older history is read
+     * page by page on demand so the listener payload stays flat as the
+     * collection grows.
+     */
+    public void listenToAlerts(int limit, OnAlertsChangedListener listener) {
         if (!firestoreManager.isUserAuthenticated()) {
             return;
         }
         alertsSyncStatus.setValue(new SyncStatus(SyncStatus.Status.SYNCING, "Connecting to alerts"));
-        ListenerRegistration registration = firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath()).addSnapshotListener((value, error) -> {
+        Query recent = firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath())
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(limit);
+        ListenerRegistration registration = recent.addSnapshotListener((value, error) -> {
             if (error != null) {
                 alertsSyncStatus.setValue(new SyncStatus(SyncStatus.Status.ERROR, error.getMessage()));
                 return;
@@ -131,6 +107,27 @@ public class FirestoreSyncListener {
         activeListeners.add(registration);
     }
 
+    public void listenToUnreadAlerts(int limit, OnAlertsChangedListener listener) {
+        if (!firestoreManager.isUserAuthenticated()) {
+            return;
+        }
+        // Served by the (read, timestamp DESC) index in firestore.indexes.json.
+        Query unread = firestoreManager.getDb().collection(firestoreManager.getUserAlertsPath())
+                .whereEqualTo("read", false)
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(limit);
+        ListenerRegistration registration = unread.addSnapshotListener((value, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Unread alerts listener failed", error);
+                return;
+            }
+            if (value != null && listener != null) {
+                listener.onAlertsChanged(value);
+            }
+        });
+        activeListeners.add(registration);
+    }
+
     public void listenToCategories(OnCategoriesChangedListener listener) {
         if (!firestoreManager.isUserAuthenticated()) {
             return;
@@ -171,10 +168,6 @@ public class FirestoreSyncListener {
         instance = null;
     }
 
-    public interface OnProductsChangedListener {
-        void onProductsChanged(QuerySnapshot snapshot);
-    }
-
     public interface OnSalesChangedListener {
         void onSalesChanged(QuerySnapshot snapshot);
     }
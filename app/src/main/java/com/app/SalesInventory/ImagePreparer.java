@@ -0,0 +1,184 @@
+package com.app.SalesInventory;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.util.Log;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class ImagePreparer {
+    private static final String TAG = "ImagePreparer";
+    private static final String IMAGES_DIR = "product_images";
+    private static final String THUMBS_DIR = "product_thumbs";
+    private static final int MAX_DIMENSION = 1280;
+    private static final int THUMB_DIMENSION = 256;
+    private static final int JPEG_QUALITY = 82;
+    private static final int THUMB_QUALITY = 75;
+
+    private static volatile File thumbsDir;
+
+    public static class PreparedImage {
+        public final String path;
+        public final String hash;
+
+        PreparedImage(String path, String hash) {
+            this.path = path;
+            this.hash = hash;
+        }
+    }
+
+    public interface OnImagePreparedListener {
+        void onImagePrepared(PreparedImage prepared);
+    }
+
+    public static boolean needsPreparation(Context context, String source) {
+        if (source == null || source.isEmpty()) return false;
+        if (source.startsWith("http://") || source.startsWith("https://") || source.startsWith("gs://")) return false;
+        String preparedPrefix = Uri.fromFile(new File(context.getFilesDir(), IMAGES_DIR)).toString();
+        return !source.startsWith(preparedPrefix);
+    }
+
+    public static PreparedImage prepare(Context context, String source) {
+        try {
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            try (InputStream in = open(context, source)) {
+                BitmapFactory.decodeStream(in, null, bounds);
+            }
+            if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+            BitmapFactory.Options opts = new BitmapFactory.Options();
+            opts.inSampleSize = computeSampleSize(bounds.outWidth, bounds.outHeight, MAX_DIMENSION);
+            Bitmap decoded;
+            try (InputStream in = open(context, source)) {
+                decoded = BitmapFactory.decodeStream(in, null, opts);
+            }
+            if (decoded == null) return null;
+            Bitmap scaled = scaleToFit(decoded, MAX_DIMENSION);
+            byte[] encoded = compress(scaled, JPEG_QUALITY);
+            String hash = sha256(encoded);
+            File imagesDir = new File(context.getFilesDir(), IMAGES_DIR);
+            if (!imagesDir.exists()) imagesDir.mkdirs();
+            File out = new File(imagesDir, hash + ".jpg");
+            if (!out.exists()) {
+                try (FileOutputStream fos = new FileOutputStream(out)) {
+                    fos.write(encoded);
+                }
+            }
+            File thumb = thumbnailFile(context, hash);
+            if (!thumb.exists()) {
+                Bitmap small = scaleToFit(scaled, THUMB_DIMENSION);
+                try (FileOutputStream fos = new FileOutputStream(thumb)) {
+                    fos.write(compress(small, THUMB_QUALITY));
+                }
+                if (small != scaled) small.recycle();
+            }
+            if (scaled != decoded) scaled.recycle();
+            decoded.recycle();
+            return new PreparedImage(Uri.fromFile(out).toString(), hash);
+        } catch (IOException | OutOfMemoryError | SecurityException e) {
+            Log.e(TAG, "Failed to prepare image " + source, e);
+            return null;
+        }
+    }
+
+    public static File thumbnailFile(Context context, String hash) {
+        File dir = thumbsDir(context);
+        if (!dir.exists()) dir.mkdirs();
+        return new File(dir, hash + ".jpg");
+    }
+
+    /**
+     * Glide request for a product image, or null if it has none. It tries the
+     * local thumbnail first and falls back to the full image if the
+     * thumbnail file is missing. Only paths are built here, with no disk
+     * access, so this is safe to call from onBindViewHolder.
+     */
+    public static RequestBuilder<Drawable> load(Context context, Product p) {
+        if (p == null) return null;
+        Object full = displaySource(p);
+        String hash = p.getImageHash();
+        if (hash == null || hash.isEmpty()) {
+            return full == null ? null : Glide.with(context).load(full);
+        }
+        RequestBuilder<Drawable> thumb = Glide.with(context).load(new File(thumbsDir(context), hash + ".jpg"));
+        if (full == null) return thumb;
+        return thumb.error(Glide.with(context).load(full).error(R.drawable.ic_image_placeholder).centerCrop());
+    }
+
+    public static Object displaySource(Product p) {
+        if (p == null) return null;
+        if (p.getImageUrl() != null && !p.getImageUrl().isEmpty()) return p.getImageUrl();
+        if (p.getImagePath() != null && !p.getImagePath().isEmpty()) return p.getImagePath();
+        return null;
+    }
+
+    private static File thumbsDir(Context context) {
+        File dir = thumbsDir;
+        if (dir == null) {
+            dir = new File(context.getApplicationContext().getFilesDir(), THUMBS_DIR);
+            thumbsDir = dir;
+        }
+        return dir;
+    }
+
+    private static InputStream open(Context context, String source) throws IOException {
+        Uri uri = Uri.parse(source);
+        if (uri.getScheme() == null) {
+            return new FileInputStream(source);
+        }
+        InputStream in = context.getContentResolver().openInputStream(uri);
+        if (in == null) throw new IOException("Cannot open " + source);
+        return in;
+    }
+
+    private static int computeSampleSize(int width, int height, int maxDimension) {
+        int sample = 1;
+        int longest = Math.max(width, height);
+        while (longest / (sample * 2) >= maxDimension) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static Bitmap scaleToFit(Bitmap source, int maxDimension) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        if (longest <= maxDimension) return source;
+        float ratio = (float) maxDimension / longest;
+        int w = Math.max(1, Math.round(source.getWidth() * ratio));
+        int h = Math.max(1, Math.round(source.getHeight() * ratio));
+        return Bitmap.createScaledBitmap(source, w, h, true);
+    }
+
+    private static byte[] compress(Bitmap bitmap, int quality) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, quality, bos);
+        return bos.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest(data);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(java.util.Arrays.hashCode(data));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.app.SalesInventory;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ImageUploadWorker extends Worker {
+    private static final String TAG = "ImageUploadWorker";
+    public static final String KEY_PARALLELISM = "parallelism";
+    public static final int DEFAULT_PARALLELISM = 3;
+    public static final int MAX_ATTEMPTS = 5;
+
+    private final ProductDao productDao;
+    private final FirestoreManager firestoreManager;
+    private final FirebaseFirestore firestore;
+    private final FirebaseStorage storage;
+
+    public ImageUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        productDao = AppDatabase.getInstance(context).productDao();
+        firestoreManager = FirestoreManager.getInstance();
+        firestore = firestoreManager.getDb();
+        storage = FirebaseStorage.getInstance();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        List<ProductEntity> pending = productDao.getPendingImageUploadsSync(MAX_ATTEMPTS);
+        if (pending == null || pending.isEmpty()) {
+            return Result.success();
+        }
+        int parallelism = Math.max(1, getInputData().getInt(KEY_PARALLELISM, DEFAULT_PARALLELISM));
+        Semaphore permits = new Semaphore(parallelism);
+        CountDownLatch done = new CountDownLatch(pending.size());
+        AtomicBoolean anyFailed = new AtomicBoolean(false);
+        try {
+            for (ProductEntity pe : pending) {
+                permits.acquire();
+                AppExecutors.getInstance().network().execute(AppExecutors.Priority.LOW, () -> {
+                    try {
+                        if (!uploadOne(pe)) anyFailed.set(true);
+                    } finally {
+                        permits.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+        return anyFailed.get() ? Result.retry() : Result.success();
+    }
+
+    private boolean uploadOne(ProductEntity pe) {
+        boolean resuming = pe.imageUploadSession != null && !pe.imageUploadSession.isEmpty();
+        try {
+            boolean hashed = pe.imageHash != null && !pe.imageHash.isEmpty();
+            String knownUrl = hashed ? productDao.findImageUrlByHash(pe.imageHash) : null;
+            if (knownUrl != null) {
+                return publishUrl(pe, knownUrl);
+            }
+            // Content-addressed images are shared per owner only, so an
+            // upload never resolves to another business's object.
+            String owner = firestoreManager.getBusinessOwnerId();
+            if (hashed && (owner == null || owner.isEmpty())) return false;
+            String name = hashed ? owner + "/by_hash/" + pe.imageHash : pe.productId;
+            StorageReference ref = storage.getReference().child("product_images/" + name + ".jpg");
+            if (hashed && !resuming) {
+                Uri existing = findExistingDownloadUrl(ref);
+                if (existing != null) {
+                    return publishUrl(pe, existing.toString());
+                }
+            }
+            Uri file = Uri.parse(pe.imagePath);
+            UploadTask task;
+            if (resuming) {
+                task = ref.putFile(file, new StorageMetadata.Builder().build(), Uri.parse(pe.imageUploadSession));
+            } else {
+                task = ref.putFile(file);
+            }
+            String[] savedSession = {pe.imageUploadSession};
+            task.addOnProgressListener(AppExecutors.getInstance().dbWrite(), snapshot -> {
+                Uri session = snapshot.getUploadSessionUri();
+                if (session != null && !session.toString().equals(savedSession[0])) {
+                    savedSession[0] = session.toString();
+                    productDao.setImageUploadSession(pe.localId, savedSession[0]);
+                }
+            });
+            Tasks.await(task);
+            Uri download = Tasks.await(ref.getDownloadUrl());
+            if (download == null) {
+                productDao.recordImageUploadFailure(pe.localId, false);
+                return false;
+            }
+            return publishUrl(pe, download.toString());
+        } catch (Exception e) {
+            Log.e(TAG, "Image upload failed for localId=" + pe.localId, e);
+            productDao.recordImageUploadFailure(pe.localId, resuming);
+            return false;
+        }
+    }
+
+    private Uri findExistingDownloadUrl(StorageReference ref) {
+        try {
+            return Tasks.await(ref.getDownloadUrl());
+        } catch (Exception notFound) {
+            return null;
+        }
+    }
+
+    private boolean publishUrl(ProductEntity pe, String url) throws Exception {
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("imageUrl", url);
+        patch.put(ProductRemoteSyncer.FIELD_LAST_UPDATED, firestoreManager.getServerTimestamp());
+        Tasks.await(firestore.collection(firestoreManager.getUserProductsPath())
+                .document(pe.productId)
+                .set(patch, SetOptions.merge()));
+        productDao.setImageUploaded(pe.localId, url);
+        return true;
+    }
+}
@@ -3,6 +3,8 @@ package com.app.SalesInventory;
 import android.content.Intent;
 import android.graphics.Rect;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.view.ViewTreeObserver;
 import android.widget.Button;
@@ -10,6 +12,8 @@ import android.widget.SearchView;
 import android.widget.Spinner;
 import android.widget.TextView;
 
+import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -24,16 +28,25 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import kotlin.Unit;
+
 public class Inventory extends BaseActivity {
     public static final String EXTRA_SHOW_LOW_STOCK_ONLY = "showLowStockOnly";
     public static final String EXTRA_SHOW_NEAR_EXPIRY_ONLY = "showNearExpiryOnly";
+    private static final long NEAR_EXPIRY_WINDOW_MILLIS = 8L * 24L * 60L * 60L * 1000L;
+    private static final long SEARCH_DEBOUNCE_MILLIS = 200L;
 
     private RecyclerView productsRecyclerView;
     private SearchView searchView;
     private TextView emptyStateTV;
     private ProductAdapter productAdapter;
-    private List<Product> allProducts = new ArrayList<>();
-    private List<Product> filteredProducts = new ArrayList<>();
+    private ProductListFilter productFilter;
+    private ProductListViewModel productListViewModel;
+    private String appliedFilterKey;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchTask = this::applyFilters;
+    private final Set<String> productCategoryNames = new HashSet<>();
+    private boolean categoriesLoaded = false;
     private ProductRepository productRepository;
     private AuthManager authManager;
     private Button btnAdjustStock;
@@ -81,9 +94,20 @@ public class Inventory extends BaseActivity {
         showLowStockOnly = getIntent().getBooleanExtra(EXTRA_SHOW_LOW_STOCK_ONLY, false);
         showNearExpiryOnly = getIntent().getBooleanExtra(EXTRA_SHOW_NEAR_EXPIRY_ONLY, false);
 
-        productAdapter = new ProductAdapter(filteredProducts, this);
+        productFilter = ProductListFilter.inventory()
+                .setLowStockOnly(showLowStockOnly)
+                .setExpiryCutoff(showNearExpiryOnly ? System.currentTimeMillis() + NEAR_EXPIRY_WINDOW_MILLIS : 0L)
+                .setSortOrder(showLowStockOnly ? ProductListFilter.SORT_QUANTITY
+                        : showNearExpiryOnly ? ProductListFilter.SORT_EXPIRY : ProductListFilter.SORT_RECENT);
+        productAdapter = new ProductAdapter(this);
+        productAdapter.addLoadStateListener(states -> {
+            if (states.getRefresh() instanceof LoadState.NotLoading) updateEmptyState();
+            return Unit.INSTANCE;
+        });
         productsRecyclerView.setLayoutManager(new GridLayoutManager(this, 3));
         productsRecyclerView.setAdapter(productAdapter);
+        productListViewModel = new ViewModelProvider(this).get(ProductListViewModel.class);
+        productListViewModel.getProducts().observe(this, data -> productAdapter.submitData(getLifecycle(), data));
 
         keyboardThresholdPx = (int)(150 * getResources().getDisplayMetrics().density);
 
@@ -107,13 +131,33 @@ public class Inventory extends BaseActivity {
         categoryRef = FirebaseDatabase.getInstance().getReference("Categories");
         listenToCategoriesForFilter();
 
-        productRepository.getAllProducts().observe(this, products -> {
-            if (products != null) {
-                allProducts.clear();
-                allProducts.addAll(products);
-                updateHeaderStats();
+        productRepository.getInventoryMetrics().observe(this, this::updateHeaderStats);
+        productRepository.getCategoryNames(false).observe(this, names -> {
+            productCategoryNames.clear();
+            if (names != null) productCategoryNames.addAll(names);
+            if (categoriesLoaded) {
+                bindCategoryOptions();
+            } else {
+                setupCategoryFilterSpinnerFallback();
+            }
+        });
+        applyFilters();
+
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                currentSearchQuery = query == null ? "" : query.trim();
+                searchHandler.removeCallbacks(searchTask);
                 applyFilters();
-                listenToCategoriesForFilter();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                currentSearchQuery = newText == null ? "" : newText.trim();
+                searchHandler.removeCallbacks(searchTask);
+                searchHandler.postDelayed(searchTask, SEARCH_DEBOUNCE_MILLIS);
+                return true;
             }
         });
 
@@ -178,7 +222,7 @@ public class Inventory extends BaseActivity {
         categoryRef.addValueEventListener(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
-                List<Category> inventoryCategories = new ArrayList<>();
+                categoryList.clear();
                 if (snapshot != null) {
                     for (DataSnapshot child : snapshot.getChildren()) {
                         Category c = child.getValue(Category.class);
@@ -187,62 +231,11 @@ public class Inventory extends BaseActivity {
                         String type = c.getType();
                         if (type == null || type.isEmpty()) type = "Inventory";
                         if ("Menu".equalsIgnoreCase(type)) continue;
-                        inventoryCategories.add(c);
+                        categoryList.add(c);
                     }
                 }
-                // Build set of category names actually used by inventory products
-                Set<String> productCategoryNames = new HashSet<>();
-                for (Product p : allProducts) {
-                    if (p == null || !p.isActive()) continue;
-                    String type = p.getProductType() == null ? "" : p.getProductType();
-                    if ("Menu".equalsIgnoreCase(type)) continue;
-                    String cname = p.getCategoryName();
-                    if (cname != null && !cname.isEmpty()) {
-                        productCategoryNames.add(cname);
-                    }
-                }
-                // Use only inventory categories that are used by products. If none found, fall back to all inventory categories.
-                List<String> options = new ArrayList<>();
-                options.add("All");
-                Set<String> added = new HashSet<>();
-                for (Category c : inventoryCategories) {
-                    String name = c.getCategoryName();
-                    if (name == null || name.isEmpty()) continue;
-                    if (!productCategoryNames.isEmpty()) {
-                        if (!productCategoryNames.contains(name)) continue;
-                    }
-                    if (added.add(name)) options.add(name);
-                }
-                if (options.size() == 1) {
-                    // nothing matched intersection -> include all inventory category names to avoid empty spinner
-                    for (Category c : inventoryCategories) {
-                        String name = c.getCategoryName();
-                        if (name == null || name.isEmpty()) continue;
-                        if (added.add(name)) options.add(name);
-                    }
-                }
-                android.widget.ArrayAdapter<String> adapter = new android.widget.ArrayAdapter<>(
-                        Inventory.this,
-                        android.R.layout.simple_spinner_item,
-                        options
-                );
-                adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                spinnerCategoryFilter.setAdapter(adapter);
-
-                int index = options.indexOf(currentCategoryFilter);
-                if (index < 0) index = 0;
-                spinnerCategoryFilter.setSelection(index);
-
-                spinnerCategoryFilter.setOnItemSelectedListener(new android.widget.AdapterView.OnItemSelectedListener() {
-                    @Override
-                    public void onItemSelected(android.widget.AdapterView<?> parent, View view, int position, long id) {
-                        String selected = (String) parent.getItemAtPosition(position);
-                        currentCategoryFilter = selected == null ? "All" : selected;
-                        applyFilters();
-                    }
-                    @Override
-                    public void onNothingSelected(android.widget.AdapterView<?> parent) { }
-                });
+                categoriesLoaded = true;
+                bindCategoryOptions();
             }
 
             @Override
@@ -252,21 +245,38 @@ public class Inventory extends BaseActivity {
         });
     }
 
-    private void setupCategoryFilterSpinnerFallback() {
-        Set<String> categories = new HashSet<>();
-        for (Product p : allProducts) {
-            if (p == null || !p.isActive()) continue;
-            String type = p.getProductType() == null ? "" : p.getProductType();
-            if ("Menu".equalsIgnoreCase(type)) continue;
-            String c = p.getCategoryName();
-            if (c != null && !c.isEmpty()) {
-                categories.add(c);
+    private void bindCategoryOptions() {
+        // Use only inventory categories that are used by products. If none found, fall back to all inventory categories.
+        List<String> options = new ArrayList<>();
+        options.add("All");
+        Set<String> added = new HashSet<>();
+        for (Category c : categoryList) {
+            String name = c.getCategoryName();
+            if (name == null || name.isEmpty()) continue;
+            if (!productCategoryNames.isEmpty()) {
+                if (!productCategoryNames.contains(name)) continue;
             }
+            if (added.add(name)) options.add(name);
         }
+        if (options.size() == 1) {
+            // nothing matched intersection -> include all inventory category names to avoid empty spinner
+            for (Category c : categoryList) {
+                String name = c.getCategoryName();
+                if (name == null || name.isEmpty()) continue;
+                if (added.add(name)) options.add(name);
+            }
+        }
+        bindCategorySpinner(options);
+    }
+
+    private void setupCategoryFilterSpinnerFallback() {
         List<String> options = new ArrayList<>();
         options.add("All");
-        options.addAll(categories);
+        options.addAll(productCategoryNames);
+        bindCategorySpinner(options);
+    }
 
+    private void bindCategorySpinner(List<String> options) {
         android.widget.ArrayAdapter<String> adapter = new android.widget.ArrayAdapter<>(
                 this,
                 android.R.layout.simple_spinner_item,
@@ -291,63 +301,26 @@ public class Inventory extends BaseActivity {
         });
     }
 
+    /**
+     * Points the grid at a paged query for the current category and search.
+     * Does nothing when neither changed, since the spinner re-fires its
+     * selection every time the category options are rebound.
+     */
     private void applyFilters() {
-        String q = currentSearchQuery == null ? "" : currentSearchQuery.toLowerCase();
-        String cat = currentCategoryFilter == null ? "All" : currentCategoryFilter;
-
-        filteredProducts.clear();
-        for (Product p : allProducts) {
-            if (p == null || !p.isActive()) continue;
-
-            String type = p.getProductType() == null ? "" : p.getProductType();
-            if ("Menu".equalsIgnoreCase(type)) continue;
-
-            boolean matchesSearch =
-                    q.isEmpty()
-                            || p.getProductName().toLowerCase().contains(q)
-                            || (p.getCategoryName() != null && p.getCategoryName().toLowerCase().contains(q));
-
-            boolean matchesCategory =
-                    "All".equalsIgnoreCase(cat)
-                            || (p.getCategoryName() != null && p.getCategoryName().equalsIgnoreCase(cat));
-
-            if (!matchesSearch || !matchesCategory) continue;
-
-            if (showLowStockOnly) {
-                boolean isCritical = p.isCriticalStock();
-                boolean isLow = p.isLowStock();
-                if (!isCritical && !isLow) continue;
-            }
-
-            if (showNearExpiryOnly) {
-                long expiry = p.getExpiryDate();
-                if (expiry <= 0) continue;
-                long now = System.currentTimeMillis();
-                long diffMillis = expiry - now;
-                long days = diffMillis / (24L * 60L * 60L * 1000L);
-                if (diffMillis > 0 && days > 7) {
-                    continue;
-                }
-            }
-
-            filteredProducts.add(p);
-        }
-        productAdapter.updateProducts(filteredProducts);
-        updateEmptyState();
+        String key = currentCategoryFilter + "|" + currentSearchQuery;
+        if (key.equals(appliedFilterKey)) return;
+        appliedFilterKey = key;
+        productFilter.setCategory(currentCategoryFilter).setSearch(currentSearchQuery);
+        productListViewModel.setFilter(productFilter);
     }
 
-    private void updateHeaderStats() {
+    private void updateHeaderStats(InventoryMetrics metrics) {
+        if (metrics == null) return;
         int total = 0;
-        int lowOrCritical = 0;
-        for (Product p : allProducts) {
-            if (p == null || !p.isActive()) continue;
-            String type = p.getProductType() == null ? "" : p.getProductType();
-            if ("Menu".equalsIgnoreCase(type)) continue;
-            total++;
-            if (p.isCriticalStock() || p.isLowStock()) {
-                lowOrCritical++;
-            }
+        for (int count : metrics.getStatusBreakdown()) {
+            total += count;
         }
+        int lowOrCritical = metrics.getLowOrCriticalCount();
         if (tvTotalCount != null) {
             tvTotalCount.setText(String.valueOf(total));
         }
@@ -362,7 +335,7 @@ public class Inventory extends BaseActivity {
     }
 
     private void updateEmptyState() {
-        if (filteredProducts.isEmpty()) {
+        if (productAdapter.getItemCount() == 0) {
             if (showLowStockOnly) {
                 emptyStateTV.setText("No low stock products found");
             } else if (showNearExpiryOnly) {
@@ -402,6 +375,7 @@ public class Inventory extends BaseActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        searchHandler.removeCallbacks(searchTask);
         if (productRepository != null && criticalListener != null) {
             productRepository.unregisterCriticalStockListener(criticalListener);
         }
@@ -0,0 +1,81 @@
+package com.app.SalesInventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the inventory metrics index. Counts and values are
+ * precomputed; near-expiry lookups binary-search the expiry-ordered list.
+ */
+public class InventoryMetrics {
+    public static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+    public static final int NEAR_EXPIRY_DAYS = 7;
+
+    private final double totalCostValue;
+    private final int inStockCount;
+    private final int lowCount;
+    private final int criticalCount;
+    private final int outOfStockCount;
+    private final int lowOrCriticalCount;
+    private final List<Product> lowStockProducts;
+    private final List<Product> byExpiry;
+
+    InventoryMetrics(double totalCostValue, int inStockCount, int lowCount, int criticalCount, int outOfStockCount,
+                     int lowOrCriticalCount, List<Product> lowStockProducts, List<Product> byExpiry) {
+        this.totalCostValue = totalCostValue;
+        this.inStockCount = inStockCount;
+        this.lowCount = lowCount;
+        this.criticalCount = criticalCount;
+        this.outOfStockCount = outOfStockCount;
+        this.lowOrCriticalCount = lowOrCriticalCount;
+        this.lowStockProducts = Collections.unmodifiableList(lowStockProducts);
+        this.byExpiry = Collections.unmodifiableList(byExpiry);
+    }
+
+    public double getTotalCostValue() {
+        return totalCostValue;
+    }
+
+    public int getLowOrCriticalCount() {
+        return lowOrCriticalCount;
+    }
+
+    /**
+     * Stock status breakdown as {inStock, low, critical, outOfStock}.
+     */
+    public int[] getStatusBreakdown() {
+        return new int[]{inStockCount, lowCount, criticalCount, outOfStockCount};
+    }
+
+    public List<Product> getLowStockProducts() {
+        return lowStockProducts;
+    }
+
+    /**
+     * Products already expired or expiring within NEAR_EXPIRY_DAYS whole days
+     * of now, soonest first.
+     */
+    public List<Product> getNearExpiryProducts(long now) {
+        return new ArrayList<>(byExpiry.subList(0, nearExpiryEnd(now)));
+    }
+
+    public int getNearExpiryCount(long now) {
+        return nearExpiryEnd(now);
+    }
+
+    private int nearExpiryEnd(long now) {
+        long cutoff = now + (NEAR_EXPIRY_DAYS + 1) * DAY_MILLIS;
+        int lo = 0;
+        int hi = byExpiry.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (byExpiry.get(mid).getExpiryDate() < cutoff) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,145 @@
+package com.app.SalesInventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Running inventory totals kept per product. Each emission of the product
+ * table is diffed against the previous one by localId and only rows whose
+ * contribution changed are removed and re-added, so consumers read counts and
+ * lists without rescanning the catalogue. Both lists are kept ordered as rows
+ * move, so a snapshot only copies them. Not thread-safe; callers serialise.
+ */
+class InventoryMetricsIndex {
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> lowStock = new TreeSet<>((a, b) -> {
+        int byQuantity = Integer.compare(a.quantity, b.quantity);
+        return byQuantity != 0 ? byQuantity : Long.compare(a.localId, b.localId);
+    });
+    private final TreeSet<Entry> byExpiry = new TreeSet<>((a, b) -> {
+        int byDate = Long.compare(a.expiryDate, b.expiryDate);
+        return byDate != 0 ? byDate : Long.compare(a.localId, b.localId);
+    });
+    private double totalCostValue;
+    private int inStockCount;
+    private int lowCount;
+    private int criticalCount;
+    private int outOfStockCount;
+    private int lowOrCriticalCount;
+
+    /**
+     * Applies the latest product list. Rows whose contribution is unchanged
+     * only swap in the fresh Product so the lists show current names.
+     */
+    void update(List<Product> products) {
+        Map<Long, Entry> seen = new HashMap<>();
+        if (products != null) {
+            for (Product p : products) {
+                if (p == null) continue;
+                Entry next = new Entry(p);
+                seen.put(next.localId, next);
+                Entry previous = entries.get(next.localId);
+                if (previous != null && previous.sameContribution(next)) {
+                    previous.product = p;
+                    seen.put(next.localId, previous);
+                    continue;
+                }
+                if (previous != null) remove(previous);
+                add(next, p);
+            }
+        }
+        if (seen.size() != entries.size()) {
+            List<Entry> gone = new ArrayList<>();
+            for (Entry e : entries.values()) {
+                if (!seen.containsKey(e.localId)) gone.add(e);
+            }
+            for (Entry e : gone) {
+                remove(e);
+            }
+        }
+    }
+
+    InventoryMetrics snapshot() {
+        List<Product> expiring = new ArrayList<>(byExpiry.size());
+        for (Entry e : byExpiry) {
+            expiring.add(e.product);
+        }
+        List<Product> low = new ArrayList<>(lowStock.size());
+        for (Entry e : lowStock) {
+            low.add(e.product);
+        }
+        return new InventoryMetrics(totalCostValue, inStockCount, lowCount, criticalCount, outOfStockCount,
+                lowOrCriticalCount, low, expiring);
+    }
+
+    private void add(Entry e, Product p) {
+        e.product = p;
+        entries.put(e.localId, e);
+        if (e.tracked) {
+            totalCostValue += e.costValue;
+            if (e.quantity <= 0) outOfStockCount++;
+            else if (e.critical) criticalCount++;
+            else if (e.low) lowCount++;
+            else inStockCount++;
+            if (e.lowStock) {
+                lowOrCriticalCount++;
+                lowStock.add(e);
+            }
+        }
+        if (e.active && e.expiryDate > 0) byExpiry.add(e);
+    }
+
+    private void remove(Entry e) {
+        entries.remove(e.localId);
+        if (e.tracked) {
+            totalCostValue -= e.costValue;
+            if (e.quantity <= 0) outOfStockCount--;
+            else if (e.critical) criticalCount--;
+            else if (e.low) lowCount--;
+            else inStockCount--;
+            if (e.lowStock) {
+                lowOrCriticalCount--;
+                lowStock.remove(e);
+            }
+        }
+        if (e.active && e.expiryDate > 0) byExpiry.remove(e);
+    }
+
+    private static class Entry {
+        final long localId;
+        final boolean active;
+        final boolean tracked;
+        final int quantity;
+        final double costValue;
+        final boolean critical;
+        final boolean low;
+        final boolean lowStock;
+        final long expiryDate;
+        Product product;
+
+        Entry(Product p) {
+            localId = p.getLocalId();
+            active = p.isActive();
+            tracked = active && !"Menu".equalsIgnoreCase(p.getProductType());
+            quantity = p.getQuantity();
+            costValue = p.getQuantity() * p.getCostPrice();
+            critical = p.isCriticalStock();
+            low = p.isLowStock();
+            lowStock = tracked && (critical || low);
+            expiryDate = p.getExpiryDate();
+        }
+
+        boolean sameContribution(Entry other) {
+            return active == other.active
+                    && tracked == other.tracked
+                    && quantity == other.quantity
+                    && costValue == other.costValue
+                    && critical == other.critical
+                    && low == other.low
+                    && expiryDate == other.expiryDate;
+        }
+    }
+}
@@ -49,21 +49,10 @@ public class LowStockItemsActivity extends BaseActivity {
         tvNoData.setVisibility(View.GONE);
         recyclerView.setVisibility(View.GONE);
 
-        productRepository.getAllProducts().observe(this, products -> {
+        productRepository.getInventoryMetrics().observe(this, metrics -> {
             lowStockList.clear();
-            if (products != null) {
-                for (Product p : products) {
-                    if (p == null || !p.isActive()) continue;
-                    String type = p.getProductType() == null ? "" : p.getProductType();
-                    if ("Menu".equalsIgnoreCase(type)) continue;
-
-                    boolean isCritical = p.isCriticalStock();
-                    boolean isLow = p.isLowStock();
-
-                    if (isCritical || isLow) {
-                        lowStockList.add(p);
-                    }
-                }
+            if (metrics != null) {
+                lowStockList.addAll(metrics.getLowStockProducts());
             }
 
             progressBar.setVisibility(View.GONE);
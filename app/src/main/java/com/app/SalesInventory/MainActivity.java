@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Locale;
 
 public class MainActivity extends BaseActivity {
+    private static final int MAX_NOTIFICATION_ITEMS = 50;
     private CardView cardTotalSales;
     private CardView cardInventoryValue;
     private CardView cardLowStock;
@@ -120,21 +121,8 @@ public class MainActivity extends BaseActivity {
     private void setupNearExpiryCard() {
         if (cardNearExpiry == null || tvNearExpiryCount == null) return;
         cardNearExpiry.setVisibility(View.GONE);
-        productRepository.getAllProducts().observe(this, products -> {
-            int count = 0;
-            if (products != null) {
-                long now = System.currentTimeMillis();
-                for (Product p : products) {
-                    if (p == null || !p.isActive()) continue;
-                    long expiry = p.getExpiryDate();
-                    if (expiry <= 0) continue;
-                    long diffMillis = expiry - now;
-                    long days = diffMillis / (24L * 60L * 60L * 1000L);
-                    if (diffMillis <= 0 || days <= 7) {
-                        count++;
-                    }
-                }
-            }
+        productRepository.getInventoryMetrics().observe(this, metrics -> {
+            int count = metrics != null ? metrics.getNearExpiryCount(System.currentTimeMillis()) : 0;
             if (count > 0) {
                 tvNearExpiryCount.setText(String.valueOf(count));
                 cardNearExpiry.setVisibility(View.VISIBLE);
@@ -337,13 +325,16 @@ public class MainActivity extends BaseActivity {
 
     public void onNotificationsClicked(View view) {
         AlertRepository repo = AlertRepository.getInstance(getApplication());
-        List<Alert> alerts = repo.getUnreadAlerts().getValue();
+        List<Alert> unread = repo.getUnreadAlerts().getValue();
 
-        if (alerts == null || alerts.isEmpty()) {
+        if (unread == null || unread.isEmpty()) {
             new AlertDialog.Builder(this).setTitle("Notifications").setMessage("No new notifications").setPositiveButton("OK", null).show();
             return;
         }
 
+        // The unread list arrives newest first; the dialog only needs the head of it.
+        List<Alert> alerts = unread.size() > MAX_NOTIFICATION_ITEMS ? unread.subList(0, MAX_NOTIFICATION_ITEMS) : unread;
+
         String[] items = new String[alerts.size()];
         for (int i = 0; i < alerts.size(); i++) {
             Alert a = alerts.get(i);
@@ -351,14 +342,26 @@ public class MainActivity extends BaseActivity {
         }
 
         AlertDialog.Builder listDialog = new AlertDialog.Builder(this);
-        listDialog.setTitle("Notifications");
+        Integer unreadCount = repo.getUnreadAlertCount().getValue();
+        int total = Math.max(unread.size(), unreadCount == null ? 0 : unreadCount);
+        listDialog.setTitle(alerts.size() < total ? "Notifications (" + alerts.size() + " of " + total + ")" : "Notifications");
         listDialog.setItems(items, (d, which) -> showAlertDetail(alerts.get(which)));
 
         listDialog.setNeutralButton("Clear All", (dialog, which) -> {
             new AlertDialog.Builder(this)
                     .setTitle("Confirm Clear")
                     .setMessage("Permanently delete all notifications?")
-                    .setPositiveButton("Clear All", (d, w) -> repo.clearAllAlerts())
+                    .setPositiveButton("Clear All", (d, w) -> repo.clearAllAlerts(new AlertRepository.OnBatchUpdatedListener() {
+                        @Override
+                        public void onBatchUpdated(int count) {
+                            runOnUiThread(() -> Toast.makeText(MainActivity.this, "Cleared " + count + " notifications", Toast.LENGTH_SHORT).show());
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            runOnUiThread(() -> Toast.makeText(MainActivity.this, "Error: " + error, Toast.LENGTH_SHORT).show());
+                        }
+                    }))
                     .setNegativeButton("Cancel", null)
                     .show();
         });
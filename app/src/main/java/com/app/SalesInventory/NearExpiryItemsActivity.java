@@ -49,21 +49,10 @@ public class NearExpiryItemsActivity extends BaseActivity {
         tvNoData.setVisibility(View.GONE);
         recyclerView.setVisibility(View.GONE);
 
-        productRepository.getAllProducts().observe(this, products -> {
+        productRepository.getInventoryMetrics().observe(this, metrics -> {
             nearExpiryList.clear();
-            long now = System.currentTimeMillis();
-
-            if (products != null) {
-                for (Product p : products) {
-                    if (p == null || !p.isActive()) continue;
-                    long expiry = p.getExpiryDate();
-                    if (expiry <= 0) continue;
-                    long diffMillis = expiry - now;
-                    long days = diffMillis / (24L * 60L * 60L * 1000L);
-                    if (diffMillis <= 0 || days <= 7) {
-                        nearExpiryList.add(p);
-                    }
-                }
+            if (metrics != null) {
+                nearExpiryList.addAll(metrics.getNearExpiryProducts(System.currentTimeMillis()));
             }
 
             progressBar.setVisibility(View.GONE);
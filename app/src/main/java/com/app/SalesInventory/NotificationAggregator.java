@@ -0,0 +1,161 @@
+package com.app.SalesInventory;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coalesces alert notifications. Alerts are buffered for a short window and
+ * then published as one notification per group (critical, low stock,
+ * expiry, other) carrying a running count, so an expiry sweep or a bulk
+ * import updates a handful of notifications instead of posting hundreds.
+ * Local alerts and FCM pushes both come through here.
+ */
+public class NotificationAggregator {
+    private static final long FLUSH_WINDOW_MILLIS = 2000;
+    private static final int MAX_SUMMARY_LINES = 5;
+    private static final int MAX_SEEN_ALERT_IDS = 500;
+
+    static final String GROUP_CRITICAL = "critical";
+    static final String GROUP_LOW_STOCK = "low_stock";
+    static final String GROUP_EXPIRY = "expiry";
+    static final String GROUP_OTHER = "other";
+
+    private static NotificationAggregator instance;
+
+    private final Context context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, List<Pending>> pending = new LinkedHashMap<>();
+    private final Map<String, GroupState> posted = new LinkedHashMap<>();
+    // The creating device shows an alert locally and then gets the same
+    // alert again through the owner FCM push; each id is counted once.
+    private final Set<String> seenAlertIds = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_SEEN_ALERT_IDS;
+        }
+    });
+    private boolean flushScheduled;
+
+    private static class Pending {
+        final String title;
+        final String message;
+        final String alertId;
+
+        Pending(String title, String message, String alertId) {
+            this.title = title;
+            this.message = message;
+            this.alertId = alertId;
+        }
+    }
+
+    private static class GroupState {
+        int count;
+        final LinkedList<String> lines = new LinkedList<>();
+    }
+
+    private NotificationAggregator(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized NotificationAggregator getInstance(Context context) {
+        if (instance == null) {
+            instance = new NotificationAggregator(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Queues one alert for display. Safe to call from any thread. An alertId
+     * seen recently is ignored.
+     */
+    public void post(String type, String title, String message, String alertId) {
+        String group = groupForType(type);
+        synchronized (this) {
+            if (alertId != null && !alertId.isEmpty() && !seenAlertIds.add(alertId)) return;
+            List<Pending> list = pending.get(group);
+            if (list == null) {
+                list = new ArrayList<>();
+                pending.put(group, list);
+            }
+            list.add(new Pending(title, message, alertId));
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        handler.postDelayed(this::flush, FLUSH_WINDOW_MILLIS);
+    }
+
+    private void flush() {
+        Map<String, List<Pending>> batch;
+        synchronized (this) {
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+        for (Map.Entry<String, List<Pending>> entry : batch.entrySet()) {
+            publish(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void publish(String group, List<Pending> alerts) {
+        if (alerts.isEmpty()) return;
+        int notificationId = NotificationHelper.groupNotificationId(group);
+        GroupState state = posted.get(group);
+        if (state == null || !NotificationHelper.isNotificationActive(context, notificationId)) {
+            // The user dismissed or opened the last one; start counting afresh.
+            state = new GroupState();
+            posted.put(group, state);
+        }
+        state.count += alerts.size();
+        for (Pending alert : alerts) {
+            state.lines.addFirst(alert.message == null ? "" : alert.message);
+            if (state.lines.size() > MAX_SUMMARY_LINES) state.lines.removeLast();
+        }
+
+        if (state.count == 1) {
+            Pending only = alerts.get(0);
+            NotificationHelper.showGroupNotification(context, notificationId, group,
+                    only.title, only.message, null, 1, only.alertId);
+            return;
+        }
+        String title = titleForGroup(group) + " (" + state.count + ")";
+        String text = state.count + " new alerts";
+        NotificationHelper.showGroupNotification(context, notificationId, group,
+                title, text, new ArrayList<>(state.lines), state.count, null);
+    }
+
+    static String groupForType(String type) {
+        if (type == null) return GROUP_OTHER;
+        switch (type) {
+            case "CRITICAL_STOCK":
+                return GROUP_CRITICAL;
+            case "LOW_STOCK":
+            case "FLOOR_STOCK":
+                return GROUP_LOW_STOCK;
+            case "EXPIRY_7_DAYS":
+            case "EXPIRY_3_DAYS":
+            case "EXPIRED":
+            case "NEAR_EXPIRY":
+                return GROUP_EXPIRY;
+            default:
+                return GROUP_OTHER;
+        }
+    }
+
+    private static String titleForGroup(String group) {
+        switch (group) {
+            case GROUP_CRITICAL: return "Critical Stock";
+            case GROUP_LOW_STOCK: return "Low Stock";
+            case GROUP_EXPIRY: return "Expiry Alerts";
+            default: return "Alerts";
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.SalesInventory;
 
+import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
@@ -7,17 +8,25 @@ import android.content.Context;
 import android.content.Intent;
 import android.graphics.Color;
 import android.os.Build;
+import android.service.notification.StatusBarNotification;
 
 import androidx.core.app.NotificationCompat;
 
+import java.util.List;
+
 /**
  * Centralized helper for showing local notifications.
  * - Creates notification channel on Android O+
  * - Deep-links into StockAlertsActivity if alertId provided
+ * - Posts the grouped alert notifications built by NotificationAggregator
  */
 public class NotificationHelper {
     private static final String CHANNEL_ID = "sales_inventory_alerts";
     private static final String CHANNEL_NAME = "Alerts";
+    private static final String SYNC_CHANNEL_ID = "sales_inventory_sync";
+    private static final String SYNC_CHANNEL_NAME = "Sync";
+    private static final String GROUP_KEY_PREFIX = "com.app.SalesInventory.alerts.";
+    private static final int GROUP_NOTIFICATION_BASE_ID = 5000;
 
     public static void showNotification(Context ctx, String title, String message, String alertId) {
         if (ctx == null) return;
@@ -48,6 +57,79 @@ public class NotificationHelper {
         if (nm != null) nm.notify((int) System.currentTimeMillis(), nb.build());
     }
 
+    /**
+     * Stable id per aggregation group, so each flush replaces the group's
+     * notification instead of stacking a new one.
+     */
+    static int groupNotificationId(String group) {
+        return GROUP_NOTIFICATION_BASE_ID + Math.abs(group.hashCode() % 1000);
+    }
+
+    static boolean isNotificationActive(Context ctx, int notificationId) {
+        NotificationManager nm = (NotificationManager) ctx.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm == null) return false;
+        for (StatusBarNotification sbn : nm.getActiveNotifications()) {
+            if (sbn.getId() == notificationId) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Posts or replaces a group's notification. With summary lines it is
+     * rendered inbox-style with the running count; a lone alert keeps its
+     * own deep link.
+     */
+    static void showGroupNotification(Context ctx, int notificationId, String group, String title, String message,
+                                      List<String> lines, int count, String alertId) {
+        createChannelIfNeeded(ctx);
+
+        Intent intent = new Intent(ctx, StockAlertsActivity.class);
+        if (alertId != null && !alertId.isEmpty()) {
+            intent.putExtra("alertId", alertId);
+        }
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+        PendingIntent pi = PendingIntent.getActivity(ctx, notificationId, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        NotificationCompat.Builder nb = new NotificationCompat.Builder(ctx, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_notifications)
+                .setContentTitle(title == null || title.isEmpty() ? "Alert" : title)
+                .setContentText(message == null ? "" : message)
+                .setAutoCancel(true)
+                .setColor(Color.parseColor("#FF6B6B"))
+                .setContentIntent(pi)
+                .setGroup(GROUP_KEY_PREFIX + group)
+                .setNumber(count)
+                .setOnlyAlertOnce(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH);
+        if (lines != null && !lines.isEmpty()) {
+            NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setBigContentTitle(title);
+            for (String line : lines) style.addLine(line);
+            if (count > lines.size()) style.setSummaryText("+" + (count - lines.size()) + " more");
+            nb.setStyle(style);
+        }
+
+        NotificationManager nm = (NotificationManager) ctx.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm != null) nm.notify(notificationId, nb.build());
+    }
+
+    public static Notification buildSyncNotification(Context ctx) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager nm = (NotificationManager) ctx.getSystemService(Context.NOTIFICATION_SERVICE);
+            if (nm != null && nm.getNotificationChannel(SYNC_CHANNEL_ID) == null) {
+                NotificationChannel ch = new NotificationChannel(SYNC_CHANNEL_ID, SYNC_CHANNEL_NAME, NotificationManager.IMPORTANCE_LOW);
+                ch.setDescription("Background data sync");
+                nm.createNotificationChannel(ch);
+            }
+        }
+        return new NotificationCompat.Builder(ctx, SYNC_CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_notifications)
+                .setContentTitle("Syncing inventory")
+                .setOngoing(true)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .build();
+    }
+
     private static void createChannelIfNeeded(Context ctx) {
         if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
         NotificationManager nm = (NotificationManager) ctx.getSystemService(Context.NOTIFICATION_SERVICE);
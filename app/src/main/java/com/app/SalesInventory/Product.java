@@ -37,6 +37,7 @@ public class Product {
 
     private String imagePath;
     private String imageUrl;
+    private String imageHash;
 
     public Product() {
         this.productType = "Raw";
@@ -252,6 +253,14 @@ public class Product {
         this.imageUrl = imageUrl;
     }
 
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+
     public boolean isCriticalStock() {
         return quantity <= reorderLevel;
     }
@@ -296,6 +305,7 @@ public class Product {
         m.put("expiryDate", expiryDate != null ? expiryDate.getTime() : 0L);
         m.put("imagePath", imagePath);
         m.put("imageUrl", imageUrl);
+        m.put("imageHash", imageHash);
         return m;
     }
 
@@ -365,6 +375,8 @@ public class Product {
         if (o != null) p.imagePath = String.valueOf(o);
         o = m.get("imageUrl");
         if (o != null) p.imageUrl = String.valueOf(o);
+        o = m.get("imageHash");
+        if (o != null) p.imageHash = String.valueOf(o);
         return p;
     }
 
@@ -5,6 +5,7 @@ import android.app.Application;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Color;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,80 +15,25 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
 
-public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.VH> {
-    private final List<Product> items = new ArrayList<>();
+public class ProductAdapter extends PagingDataAdapter<Product, ProductAdapter.VH> {
     private final Context ctx;
     private final ProductRepository repository;
     private final AuthManager authManager;
 
     public ProductAdapter(Context ctx) {
+        super(new ProductDiffCallback());
         this.ctx = ctx;
         this.repository = ProductRepository.getInstance((Application) ctx.getApplicationContext());
         this.authManager = AuthManager.getInstance();
     }
 
-    public ProductAdapter(List<Product> initialList, Context ctx) {
-        this(ctx);
-        if (initialList != null) {
-            this.items.clear();
-            this.items.addAll(initialList);
-        }
-    }
-
-    public void setItems(List<Product> list) {
-        items.clear();
-        if (list != null) items.addAll(list);
-        notifyDataSetChanged();
-    }
-
-    public void updateProducts(List<Product> list) {
-        if (list == null) {
-            this.items.clear();
-        } else {
-            this.items.clear();
-            this.items.addAll(new ArrayList<>(list));
-        }
-        notifyDataSetChanged();
-    }
-
-    public void addOrUpdate(Product p) {
-        if (p == null) return;
-        for (int i = 0; i < items.size(); i++) {
-            Product ex = items.get(i);
-            if (ex.getProductId().equals(p.getProductId())) {
-                items.set(i, p);
-                notifyItemChanged(i);
-                return;
-            }
-        }
-        items.add(0, p);
-        notifyItemInserted(0);
-    }
-
-    public void removeByProductId(String productId) {
-        if (productId == null) return;
-        for (int i = 0; i < items.size(); i++) {
-            if (productId.equals(items.get(i).getProductId())) {
-                items.remove(i);
-                notifyItemRemoved(i);
-                return;
-            }
-        }
-    }
-
-    public void clear() {
-        items.clear();
-        notifyDataSetChanged();
-    }
-
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -97,7 +43,7 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        Product p = items.get(position);
+        Product p = getItem(position);
         if (p == null) return;
 
         holder.name.setText(p.getProductName() != null ? p.getProductName() : "");
@@ -116,12 +62,10 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.VH> {
                 holder.sellingPriceText.setText("Selling: ₱" + String.format(Locale.US, "%.2f", sellingPrice));
             }
         }
-        String toLoad = null;
-        if (p.getImageUrl() != null && !p.getImageUrl().isEmpty()) toLoad = p.getImageUrl();
-        else if (p.getImagePath() != null && !p.getImagePath().isEmpty()) toLoad = p.getImagePath();
+        RequestBuilder<Drawable> image = ImagePreparer.load(ctx, p);
 
-        if (toLoad != null && !toLoad.isEmpty()) {
-            Glide.with(ctx).load(toLoad).placeholder(R.drawable.ic_image_placeholder).error(R.drawable.ic_image_placeholder).centerCrop().into(holder.productImage);
+        if (image != null) {
+            image.placeholder(R.drawable.ic_image_placeholder).error(R.drawable.ic_image_placeholder).centerCrop().into(holder.productImage);
         } else {
             holder.productImage.setImageResource(R.drawable.ic_image_placeholder);
         }
@@ -205,11 +149,6 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.VH> {
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return items.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView name, quantityText, costPriceText, stockText, sellingPriceText, floorText;
         ImageView productImage;
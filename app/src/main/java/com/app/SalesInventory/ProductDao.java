@@ -1,10 +1,12 @@
 package com.app.SalesInventory;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import java.util.List;
@@ -18,12 +20,47 @@ public interface ProductDao {
     @Query("SELECT * FROM products WHERE syncState <> 'SYNCED' ORDER BY lastUpdated DESC")
     List<ProductEntity> getPendingProductsSync();
 
+    @Query("SELECT * FROM products WHERE categoryName = :categoryName COLLATE NOCASE ORDER BY productName COLLATE NOCASE ASC")
+    List<ProductEntity> getByCategorySync(String categoryName);
+
+    @Query("SELECT * FROM products WHERE isActive = 1 AND (CASE WHEN productType = 'Menu' COLLATE NOCASE THEN 1 ELSE 0 END) = :menuItems AND (:category IS NULL OR categoryName = :category COLLATE NOCASE) AND (:lowStockOnly = 0 OR quantity <= MAX(reorderLevel * 2, reorderLevel + 1)) AND (:expiryCutoff = 0 OR (expiryDate > 0 AND expiryDate < :expiryCutoff)) ORDER BY CASE WHEN :sortOrder = 1 THEN productName END COLLATE NOCASE ASC, CASE WHEN :sortOrder = 2 THEN quantity END ASC, CASE WHEN :sortOrder = 3 THEN expiryDate END ASC, lastUpdated DESC, localId DESC")
+    PagingSource<Integer, ProductEntity> pageProducts(int menuItems, String category, int lowStockOnly, long expiryCutoff, int sortOrder);
+
+    /**
+     * Full-text search through products_fts. matchQuery is an FTS4 MATCH
+     * expression of prefix terms; rows whose barcode equals the raw query or
+     * whose name starts with namePrefix (a LIKE pattern) rank first.
+     */
+    @Query("SELECT products.* FROM products JOIN products_fts ON products.localId = products_fts.docid WHERE products_fts MATCH :matchQuery AND products.isActive = 1 AND (CASE WHEN products.productType = 'Menu' COLLATE NOCASE THEN 1 ELSE 0 END) = :menuItems AND (:category IS NULL OR products.categoryName = :category COLLATE NOCASE) AND (:lowStockOnly = 0 OR products.quantity <= MAX(products.reorderLevel * 2, products.reorderLevel + 1)) AND (:expiryCutoff = 0 OR (products.expiryDate > 0 AND products.expiryDate < :expiryCutoff)) ORDER BY CASE WHEN products.barcode = :rawQuery THEN 0 WHEN products.productName LIKE :namePrefix ESCAPE '\\' THEN 1 ELSE 2 END ASC, products.productName COLLATE NOCASE ASC, products.localId DESC")
+    PagingSource<Integer, ProductEntity> searchProducts(String matchQuery, String rawQuery, String namePrefix, int menuItems, String category, int lowStockOnly, long expiryCutoff);
+
+    @Query("SELECT DISTINCT categoryName FROM products WHERE isActive = 1 AND (CASE WHEN productType = 'Menu' COLLATE NOCASE THEN 1 ELSE 0 END) = :menuItems AND categoryName IS NOT NULL AND categoryName <> '' ORDER BY categoryName COLLATE NOCASE ASC")
+    LiveData<List<String>> getCategoryNamesLive(int menuItems);
+
+    @Query("SELECT * FROM products WHERE syncState IN ('PENDING', 'DELETE_PENDING', 'ERROR') AND nextSyncAt <= :now ORDER BY syncPriority DESC, lastUpdated ASC LIMIT :limit")
+    List<ProductEntity> getDueProductsSync(long now, int limit);
+
+    @Query("SELECT COUNT(*) FROM products WHERE syncState = 'DEAD_LETTER'")
+    LiveData<Integer> observeDeadLetterCount();
+
+    @Query("UPDATE products SET syncState = CASE WHEN isActive = 1 THEN 'PENDING' ELSE 'DELETE_PENDING' END, syncAttempts = 0, nextSyncAt = 0 WHERE syncState = 'DEAD_LETTER'")
+    int requeueDeadLetters();
+
+    @Query("UPDATE products SET syncState = :syncState, syncAttempts = :syncAttempts, nextSyncAt = :nextSyncAt WHERE localId = :localId AND lastUpdated = :lastUpdated")
+    int setSyncRetryIfUnchanged(long localId, long lastUpdated, String syncState, int syncAttempts, long nextSyncAt);
+
     @Query("SELECT * FROM products WHERE productId = :productId LIMIT 1")
     ProductEntity getByProductIdSync(String productId);
 
     @Query("SELECT * FROM products WHERE localId = :localId LIMIT 1")
     ProductEntity getByLocalId(long localId);
 
+    @Query("SELECT * FROM products WHERE barcode = :barcode AND isActive = 1 ORDER BY lastUpdated DESC LIMIT 1")
+    ProductEntity getByBarcodeSync(String barcode);
+
+    @Query("SELECT * FROM products WHERE (expiryDate > 0 AND expiryDate < :expiryCutoff) OR (floorLevel > 0 AND quantity <= floorLevel)")
+    List<ProductEntity> getAlertCandidatesSync(long expiryCutoff);
+
     @Insert
     long insert(ProductEntity entity);
 
@@ -38,4 +75,91 @@ public interface ProductDao {
 
     @Query("SELECT * FROM products ORDER BY lastUpdated DESC")
     List<ProductEntity> getAllProductsSync();
-}
\ No newline at end of file
+
+    @Query("UPDATE products SET productId = :productId WHERE localId = :localId")
+    void setProductId(long localId, String productId);
+
+    @Query("UPDATE products SET syncState = 'SYNCED', syncAttempts = 0, nextSyncAt = 0, dirtyFields = NULL, pendingQuantityDelta = 0 WHERE localId = :localId AND lastUpdated = :lastUpdated")
+    int markSyncedIfUnchanged(long localId, long lastUpdated);
+
+    @Query("UPDATE products SET pendingQuantityDelta = pendingQuantityDelta - :sentDelta WHERE localId = :localId")
+    void consumeQuantityDelta(long localId, int sentDelta);
+
+    @Transaction
+    default void assignProductIds(List<ProductEntity> entities) {
+        if (entities == null) return;
+        for (ProductEntity e : entities) {
+            setProductId(e.localId, e.productId);
+        }
+    }
+
+    @Transaction
+    default void markSynced(List<ProductEntity> upserted, List<Long> deletedLocalIds) {
+        if (upserted != null) {
+            for (ProductEntity e : upserted) {
+                if (e.pendingQuantityDelta != 0) {
+                    consumeQuantityDelta(e.localId, e.pendingQuantityDelta);
+                }
+                markSyncedIfUnchanged(e.localId, e.lastUpdated);
+            }
+        }
+        if (deletedLocalIds != null) {
+            for (Long localId : deletedLocalIds) {
+                deleteByLocalId(localId);
+            }
+        }
+    }
+
+    @Transaction
+    default void markSyncFailed(List<ProductEntity> entities) {
+        if (entities == null) return;
+        for (ProductEntity e : entities) {
+            setSyncRetryIfUnchanged(e.localId, e.lastUpdated, e.syncState, e.syncAttempts, e.nextSyncAt);
+        }
+    }
+
+    @Query("SELECT * FROM products WHERE productId IN (:productIds)")
+    List<ProductEntity> getByProductIdsSync(List<String> productIds);
+
+    @Insert
+    List<Long> insertAll(List<ProductEntity> entities);
+
+    @Update
+    void updateAll(List<ProductEntity> entities);
+
+    @Query("SELECT * FROM products WHERE imagePath IS NOT NULL AND imagePath <> '' AND (imageUrl IS NULL OR imageUrl = '') AND productId IS NOT NULL AND productId <> '' AND syncState = 'SYNCED' AND imageUploadAttempts < :maxAttempts")
+    List<ProductEntity> getPendingImageUploadsSync(int maxAttempts);
+
+    @Query("SELECT COUNT(*) FROM products WHERE imagePath IS NOT NULL AND imagePath <> '' AND (imageUrl IS NULL OR imageUrl = '') AND productId IS NOT NULL AND productId <> '' AND syncState = 'SYNCED' AND imageUploadAttempts < :maxAttempts")
+    int countPendingImageUploads(int maxAttempts);
+
+    @Query("SELECT imageUrl FROM products WHERE imageHash = :imageHash AND imageUrl IS NOT NULL AND imageUrl <> '' LIMIT 1")
+    String findImageUrlByHash(String imageHash);
+
+    @Query("UPDATE products SET imageUploadSession = :session WHERE localId = :localId")
+    void setImageUploadSession(long localId, String session);
+
+    @Query("UPDATE products SET imageUrl = :imageUrl, imageUploadSession = NULL, imageUploadAttempts = 0 WHERE localId = :localId")
+    void setImageUploaded(long localId, String imageUrl);
+
+    @Query("UPDATE products SET imageUploadAttempts = imageUploadAttempts + 1, imageUploadSession = CASE WHEN :clearSession THEN NULL ELSE imageUploadSession END WHERE localId = :localId")
+    void recordImageUploadFailure(long localId, boolean clearSession);
+
+    @Query("DELETE FROM products WHERE productId IN (:productIds)")
+    void deleteByProductIds(List<String> productIds);
+
+    @Transaction
+    default void applyRemoteBatch(List<ProductEntity> updates, List<ProductEntity> inserts, List<String> deletedProductIds) {
+        if (updates != null && !updates.isEmpty()) {
+            updateAll(updates);
+        }
+        if (inserts != null && !inserts.isEmpty()) {
+            insertAll(inserts);
+        }
+        if (deletedProductIds != null) {
+            for (int i = 0; i < deletedProductIds.size(); i += 500) {
+                deleteByProductIds(deletedProductIds.subList(i, Math.min(deletedProductIds.size(), i + 500)));
+            }
+        }
+    }
+}
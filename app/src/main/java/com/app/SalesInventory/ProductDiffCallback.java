@@ -0,0 +1,36 @@
+package com.app.SalesInventory;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
+
+/**
+ * Item identity and display equality for product grids. Rows loaded from Room
+ * are matched by localId; remote-only rows (localId 0) fall back to productId.
+ */
+class ProductDiffCallback extends DiffUtil.ItemCallback<Product> {
+
+    @Override
+    public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+        if (oldItem.getLocalId() != 0 && newItem.getLocalId() != 0) {
+            return oldItem.getLocalId() == newItem.getLocalId();
+        }
+        return oldItem.getProductId().equals(newItem.getProductId());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+        return Objects.equals(oldItem.getProductName(), newItem.getProductName())
+                && Objects.equals(oldItem.getCategoryName(), newItem.getCategoryName())
+                && Objects.equals(oldItem.getProductType(), newItem.getProductType())
+                && oldItem.getQuantity() == newItem.getQuantity()
+                && oldItem.getFloorLevel() == newItem.getFloorLevel()
+                && oldItem.getCostPrice() == newItem.getCostPrice()
+                && oldItem.getSellingPrice() == newItem.getSellingPrice()
+                && oldItem.getDateAdded() == newItem.getDateAdded()
+                && oldItem.getExpiryDate() == newItem.getExpiryDate()
+                && Objects.equals(oldItem.getImagePath(), newItem.getImagePath())
+                && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+    }
+}
@@ -2,10 +2,29 @@ package com.app.SalesInventory;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "products")
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Entity(tableName = "products",
+        indices = {
+                @Index(value = "productId", unique = true),
+                @Index("syncState"),
+                @Index("expiryDate"),
+                @Index("categoryName"),
+                @Index("barcode"),
+                @Index("isActive")
+        })
 public class ProductEntity {
+    public static final int SYNC_PRIORITY_NORMAL = 0;
+    public static final int SYNC_PRIORITY_HIGH = 1;
+    public static final String DIRTY_ALL = "*";
+
     @PrimaryKey(autoGenerate = true)
     public long localId;
     @ColumnInfo(name = "productId")
@@ -56,6 +75,95 @@ public class ProductEntity {
     public long expiryDate;
     @ColumnInfo(name = "productType")
     public String productType;
+    @ColumnInfo(name = "imageUploadAttempts")
+    public int imageUploadAttempts;
+    @ColumnInfo(name = "imageUploadSession")
+    public String imageUploadSession;
+    @ColumnInfo(name = "imageHash")
+    public String imageHash;
+    @ColumnInfo(name = "syncAttempts")
+    public int syncAttempts;
+    @ColumnInfo(name = "nextSyncAt")
+    public long nextSyncAt;
+    @ColumnInfo(name = "syncPriority")
+    public int syncPriority;
+    @ColumnInfo(name = "dirtyFields")
+    public String dirtyFields;
+    @ColumnInfo(name = "pendingQuantityDelta")
+    public int pendingQuantityDelta;
 
     public ProductEntity() {}
+
+    public Map<String, Object> toRemoteFields() {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("productName", productName);
+        doc.put("categoryId", categoryId);
+        doc.put("categoryName", categoryName);
+        doc.put("description", description);
+        doc.put("costPrice", costPrice);
+        doc.put("sellingPrice", sellingPrice);
+        doc.put("quantity", quantity);
+        doc.put("reorderLevel", reorderLevel);
+        doc.put("criticalLevel", criticalLevel);
+        doc.put("ceilingLevel", ceilingLevel);
+        doc.put("floorLevel", floorLevel);
+        doc.put("unit", unit);
+        doc.put("barcode", barcode);
+        doc.put("supplier", supplier);
+        doc.put("dateAdded", dateAdded);
+        doc.put("addedBy", addedBy);
+        doc.put("isActive", isActive);
+        doc.put("productType", productType);
+        doc.put("expiryDate", expiryDate);
+        if (imageUrl != null && !imageUrl.isEmpty()) {
+            doc.put("imageUrl", imageUrl);
+        }
+        if (imageHash != null && !imageHash.isEmpty()) {
+            doc.put("imageHash", imageHash);
+        }
+        return doc;
+    }
+
+    public Set<String> getDirtyFieldSet() {
+        Set<String> set = new LinkedHashSet<>();
+        if (dirtyFields == null || dirtyFields.isEmpty()) return set;
+        for (String f : dirtyFields.split(",")) {
+            if (!f.isEmpty()) set.add(f);
+        }
+        return set;
+    }
+
+    public boolean needsFullSync() {
+        Set<String> dirty = getDirtyFieldSet();
+        return dirty.contains(DIRTY_ALL) || (dirty.isEmpty() && pendingQuantityDelta == 0);
+    }
+
+    public void markAllDirty() {
+        dirtyFields = DIRTY_ALL;
+        pendingQuantityDelta = 0;
+    }
+
+    public void markDirtySince(Map<String, Object> before) {
+        Set<String> dirty = getDirtyFieldSet();
+        if (dirty.contains(DIRTY_ALL)) return;
+        Map<String, Object> after = toRemoteFields();
+        Set<String> keys = new LinkedHashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            if (!Objects.equals(before.get(key), after.get(key))) dirty.add(key);
+        }
+        if (dirty.contains("quantity")) pendingQuantityDelta = 0;
+        StringBuilder joined = new StringBuilder();
+        for (String field : dirty) {
+            if (joined.length() > 0) joined.append(',');
+            joined.append(field);
+        }
+        dirtyFields = joined.length() == 0 ? null : joined.toString();
+    }
+
+    public void addQuantityDelta(int delta) {
+        Set<String> dirty = getDirtyFieldSet();
+        if (dirty.contains(DIRTY_ALL) || dirty.contains("quantity")) return;
+        pendingQuantityDelta += delta;
+    }
 }
\ No newline at end of file
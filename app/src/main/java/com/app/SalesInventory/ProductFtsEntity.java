@@ -0,0 +1,24 @@
+package com.app.SalesInventory;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * External-content FTS4 index over the searchable product columns. Room
+ * keeps it in step with the products table through generated triggers; the
+ * docid of each row is the product's localId.
+ */
+@Fts4(contentEntity = ProductEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "products_fts")
+public class ProductFtsEntity {
+    @ColumnInfo(name = "productName")
+    public String productName;
+    @ColumnInfo(name = "description")
+    public String description;
+    @ColumnInfo(name = "categoryName")
+    public String categoryName;
+    @ColumnInfo(name = "barcode")
+    public String barcode;
+}
@@ -0,0 +1,88 @@
+package com.app.SalesInventory;
+
+/**
+ * What a paged product grid shows. Every field is pushed into the ProductDao
+ * paging query, so changing the filter means asking the repository for a new
+ * stream rather than re-filtering rows in Java.
+ */
+public class ProductListFilter {
+    public static final int SORT_RECENT = 0;
+    public static final int SORT_NAME = 1;
+    public static final int SORT_QUANTITY = 2;
+    public static final int SORT_EXPIRY = 3;
+
+    private final boolean menuItems;
+    private String category;
+    private String search;
+    private int sortOrder = SORT_RECENT;
+    private boolean lowStockOnly;
+    private long expiryCutoff;
+
+    private ProductListFilter(boolean menuItems) {
+        this.menuItems = menuItems;
+    }
+
+    public static ProductListFilter inventory() {
+        return new ProductListFilter(false);
+    }
+
+    public static ProductListFilter menu() {
+        return new ProductListFilter(true);
+    }
+
+    public boolean isMenuItems() {
+        return menuItems;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @param category exact category name, or null/empty/"All" for every category
+     */
+    public ProductListFilter setCategory(String category) {
+        this.category = category == null || category.isEmpty() || "All".equalsIgnoreCase(category) ? null : category;
+        return this;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public ProductListFilter setSearch(String search) {
+        String trimmed = search == null ? "" : search.trim();
+        this.search = trimmed.isEmpty() ? null : trimmed;
+        return this;
+    }
+
+    public int getSortOrder() {
+        return sortOrder;
+    }
+
+    public ProductListFilter setSortOrder(int sortOrder) {
+        this.sortOrder = sortOrder;
+        return this;
+    }
+
+    public boolean isLowStockOnly() {
+        return lowStockOnly;
+    }
+
+    public ProductListFilter setLowStockOnly(boolean lowStockOnly) {
+        this.lowStockOnly = lowStockOnly;
+        return this;
+    }
+
+    public long getExpiryCutoff() {
+        return expiryCutoff;
+    }
+
+    /**
+     * @param expiryCutoff only products expiring before this time; 0 disables
+     */
+    public ProductListFilter setExpiryCutoff(long expiryCutoff) {
+        this.expiryCutoff = expiryCutoff;
+        return this;
+    }
+}
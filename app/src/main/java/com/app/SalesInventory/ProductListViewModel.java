@@ -0,0 +1,39 @@
+package com.app.SalesInventory;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+/**
+ * Holds the single paged product stream behind a grid. A new filter swaps
+ * the underlying Pager inside one MediatorLiveData, and the result is cached
+ * once in the ViewModel scope, so the previous Pager stops collecting (and
+ * stops reloading on Room invalidations) as soon as it is replaced.
+ */
+public class ProductListViewModel extends AndroidViewModel {
+    private final ProductRepository productRepository;
+    private final MediatorLiveData<PagingData<Product>> pages = new MediatorLiveData<>();
+    private final LiveData<PagingData<Product>> products;
+    private LiveData<PagingData<Product>> source;
+
+    public ProductListViewModel(@NonNull Application application) {
+        super(application);
+        productRepository = ProductRepository.getInstance(application);
+        products = PagingLiveData.cachedIn(pages, this);
+    }
+
+    public LiveData<PagingData<Product>> getProducts() {
+        return products;
+    }
+
+    public void setFilter(ProductListFilter filter) {
+        if (source != null) pages.removeSource(source);
+        source = productRepository.pageProducts(filter);
+        pages.addSource(source, pages::setValue);
+    }
+}
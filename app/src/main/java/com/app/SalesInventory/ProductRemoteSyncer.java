@@ -5,54 +5,99 @@ import android.util.Log;
 
 import androidx.annotation.Nullable;
 
+import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.EventListener;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ProductRemoteSyncer {
     private static final String TAG = "ProductRemoteSyncer";
+    static final String FIELD_LAST_UPDATED = "lastUpdated";
+    static final String FIELD_DELETED = "deleted";
 
     private final ProductRepository productRepository;
     private final FirebaseFirestore db;
+    private final SyncWatermarkStore watermarkStore;
     private ListenerRegistration productsListener;
 
     public ProductRemoteSyncer(Application application) {
         this.productRepository = ProductRepository.getInstance(application);
         this.db = FirestoreManager.getInstance().getDb();
+        this.watermarkStore = SyncWatermarkStore.getInstance(application);
     }
 
     public void syncAllProducts(@Nullable Runnable onFinished) {
         String path = FirestoreManager.getInstance().getUserProductsPath();
-        db.collection(path)
+        deltaQuery(path)
                 .get()
-                .addOnSuccessListener(this::handleSnapshot)
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to download products", e);
-                    if (onFinished != null) onFinished.run();
-                })
+                .addOnSuccessListener(snapshot -> handleSnapshot(path, snapshot, snapshot.getDocuments()))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to download products", e))
                 .addOnCompleteListener(task -> {
                     if (onFinished != null) onFinished.run();
                 });
     }
 
-    private void handleSnapshot(QuerySnapshot snapshot) {
+    /**
+     * Drops the watermark and pulls the whole collection again. Manual repair
+     * for a local table that drifted; the realtime listener stays on deltas.
+     */
+    public void resyncAllProducts(@Nullable Runnable onFinished) {
+        watermarkStore.clear(FirestoreManager.getInstance().getUserProductsPath());
+        syncAllProducts(onFinished);
+    }
+
+    private Query deltaQuery(String path) {
+        Timestamp since = watermarkStore.get(path);
+        if (since == null) {
+            return db.collection(path);
+        }
+        return db.collection(path)
+                .whereGreaterThanOrEqualTo(FIELD_LAST_UPDATED, since)
+                .orderBy(FIELD_LAST_UPDATED, Query.Direction.ASCENDING);
+    }
+
+    private void handleSnapshot(String path, QuerySnapshot snapshot, List<? extends DocumentSnapshot> docs) {
         if (snapshot == null) return;
-        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+        List<Product> batch = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        Timestamp highWater = null;
+        for (DocumentSnapshot doc : docs) {
+            if (doc == null || !doc.exists()) continue;
+            if (doc.getMetadata().hasPendingWrites()) continue;
+            Timestamp ts = getTimestamp(doc, FIELD_LAST_UPDATED);
+            if (ts != null && (highWater == null || ts.compareTo(highWater) > 0)) {
+                highWater = ts;
+            }
+            if (isTombstone(doc)) {
+                deletedIds.add(doc.getId());
+                continue;
+            }
             Product p = mapDocToProduct(doc);
             if (p != null) {
-                productRepository.upsertFromRemote(p);
+                batch.add(p);
             }
         }
+        boolean fromServer = !snapshot.getMetadata().isFromCache();
+        Timestamp newWatermark = highWater;
+        productRepository.applyRemoteChanges(batch, deletedIds, () -> {
+            if (fromServer && newWatermark != null) {
+                watermarkStore.advance(path, newWatermark);
+            }
+        });
     }
 
     public void startRealtimeSync(String ownerAdminUid) {
         stopRealtimeSync();
         if (ownerAdminUid == null || ownerAdminUid.isEmpty()) return;
         String path = "products/" + ownerAdminUid + "/items";
-        productsListener = db.collection(path).addSnapshotListener(new EventListener<QuerySnapshot>() {
+        productsListener = deltaQuery(path).addSnapshotListener(new EventListener<QuerySnapshot>() {
             @Override
             public void onEvent(@Nullable QuerySnapshot snapshots, @Nullable com.google.firebase.firestore.FirebaseFirestoreException error) {
                 if (error != null) {
@@ -60,12 +105,12 @@ public class ProductRemoteSyncer {
                     return;
                 }
                 if (snapshots == null) return;
+                List<DocumentSnapshot> changed = new ArrayList<>();
                 for (DocumentChange dc : snapshots.getDocumentChanges()) {
-                    DocumentSnapshot doc = dc.getDocument();
-                    Product p = mapDocToProduct(doc);
-                    if (p == null) continue;
-                    productRepository.upsertFromRemote(p);
+                    if (dc.getType() == DocumentChange.Type.REMOVED) continue;
+                    changed.add(dc.getDocument());
                 }
+                handleSnapshot(path, snapshots, changed);
             }
         });
     }
@@ -77,6 +122,11 @@ public class ProductRemoteSyncer {
         }
     }
 
+    static boolean isTombstone(DocumentSnapshot doc) {
+        Boolean deleted = doc.getBoolean(FIELD_DELETED);
+        return deleted != null && deleted;
+    }
+
     private Product mapDocToProduct(DocumentSnapshot doc) {
         if (doc == null || !doc.exists()) return null;
         Product p = new Product();
@@ -101,6 +151,7 @@ public class ProductRemoteSyncer {
         p.setExpiryDate(getLong(doc, "expiryDate"));
         p.setProductType(getString(doc, "productType"));
         p.setImageUrl(getString(doc, "imageUrl"));
+        p.setImageHash(doc.getString("imageHash"));
         p.setImagePath(null);
         return p;
     }
@@ -127,6 +178,14 @@ public class ProductRemoteSyncer {
         return l == null ? 0L : l;
     }
 
+    private Timestamp getTimestamp(DocumentSnapshot doc, String field) {
+        try {
+            return doc.getTimestamp(field, DocumentSnapshot.ServerTimestampBehavior.NONE);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
     private boolean getBoolean(DocumentSnapshot doc, String field, boolean def) {
         Boolean b = doc.getBoolean(field);
         return b == null ? def : b;
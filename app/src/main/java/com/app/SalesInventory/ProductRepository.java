@@ -3,7 +3,11 @@ package com.app.SalesInventory;
 import android.app.Application;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
-import androidx.lifecycle.Observer;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 import org.json.JSONException;
 import org.json.JSONObject;
 import java.io.BufferedReader;
@@ -11,17 +15,33 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ProductRepository {
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final int PAGE_SIZE = 60;
     private static ProductRepository instance;
     private AppDatabase db;
+    private SalesDao salesDao;
     private ProductDao productDao;
+    private StockMovementDao movementDao;
     private MediatorLiveData<List<Product>> allProducts;
+    private LiveData<List<ProductEntity>> productsSource;
+    private final InventoryMetricsIndex metricsIndex = new InventoryMetricsIndex();
+    private final MediatorLiveData<InventoryMetrics> inventoryMetrics = new MediatorLiveData<>();
+    private final AtomicLong metricsGeneration = new AtomicLong();
+    private final AtomicLong productsGeneration = new AtomicLong();
     private Application application;
     private AlertRepository alertRepository;
+    private final AppExecutors executors = AppExecutors.getInstance();
     private List<OnCriticalStockListener> criticalStockListeners = new CopyOnWriteArrayList<>();
     public interface OnCriticalStockListener {
         void onProductCritical(Product product);
@@ -30,18 +50,12 @@ public class ProductRepository {
         this.application = application;
         db = AppDatabase.getInstance(application);
         productDao = db.productDao();
+        salesDao = db.salesDao();
+        movementDao = db.stockMovementDao();
         allProducts = new MediatorLiveData<>();
-        LiveData<List<ProductEntity>> source = productDao.getAllProductsLive();
-        allProducts.addSource(source, entities -> {
-            List<Product> list = new ArrayList<>();
-            if (entities != null) {
-                for (ProductEntity e : entities) {
-                    Product p = mapEntityToProduct(e);
-                    list.add(p);
-                }
-            }
-            allProducts.setValue(list);
-        });
+        productsSource = productDao.getAllProductsLive();
+        allProducts.addSource(productsSource, this::publishProducts);
+        inventoryMetrics.addSource(productDao.getAllProductsLive(), this::publishMetrics);
         alertRepository = AlertRepository.getInstance(application);
         SyncScheduler.schedulePeriodicSync(application.getApplicationContext());
     }
@@ -62,8 +76,17 @@ public class ProductRepository {
     public LiveData<List<Product>> getAllProducts() {
         return allProducts;
     }
+
+    /**
+     * Inventory value, stock-status counts and the expiry-ordered list,
+     * maintained per changed product on the cpu lane. It has its own entity
+     * query and does not activate getAllProducts().
+     */
+    public LiveData<InventoryMetrics> getInventoryMetrics() {
+        return inventoryMetrics;
+    }
     public void fetchAllProductsAsync(OnProductsFetchedListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.dbRead().execute(AppExecutors.Priority.NORMAL, () -> {
             List<ProductEntity> entities = productDao.getPendingProductsSync();
             List<Product> products = new ArrayList<>();
             if (entities != null) {
@@ -75,33 +98,84 @@ public class ProductRepository {
         });
     }
     public void getProductsByCategory(String category, OnProductsFetchedListener listener) {
-        LiveData<List<ProductEntity>> source = productDao.getAllProductsLive();
-        Observer<List<ProductEntity>> obs = new Observer<List<ProductEntity>>() {
-            @Override
-            public void onChanged(List<ProductEntity> entities) {
-                source.removeObserver(this);
-                List<Product> results = new ArrayList<>();
-                if (entities != null) {
-                    for (ProductEntity e : entities) {
-                        Product p = mapEntityToProduct(e);
-                        if (category == null || category.isEmpty()) {
-                            results.add(p);
-                        } else {
-                            String catName = p.getCategoryName() == null ? "" : p.getCategoryName();
-                            if (catName.equalsIgnoreCase(category)) results.add(p);
-                        }
-                    }
+        executors.dbRead().execute(AppExecutors.Priority.NORMAL, () -> {
+            List<ProductEntity> entities = category == null || category.isEmpty()
+                    ? productDao.getAllProductsSync()
+                    : productDao.getByCategorySync(category);
+            List<Product> results = new ArrayList<>();
+            if (entities != null) {
+                for (ProductEntity e : entities) {
+                    results.add(mapEntityToProduct(e));
                 }
-                listener.onProductsFetched(results);
             }
-        };
-        source.observeForever(obs);
+            listener.onProductsFetched(results);
+        });
+    }
+
+    /**
+     * Paged product stream for grids. Filtering and ordering run in SQL and
+     * only the loaded pages are mapped to Product, so memory stays flat as
+     * the catalog grows. A search goes through the FTS index and is ranked
+     * by relevance instead of the filter's sort order. Callers should
+     * cachedIn() the result once, as ProductListViewModel does.
+     */
+    public LiveData<PagingData<Product>> pageProducts(ProductListFilter filter) {
+        int menuItems = filter.isMenuItems() ? 1 : 0;
+        String category = filter.getCategory();
+        int lowStockOnly = filter.isLowStockOnly() ? 1 : 0;
+        long expiryCutoff = filter.getExpiryCutoff();
+        int sortOrder = filter.getSortOrder();
+        String search = filter.getSearch();
+        String matchQuery = search == null ? null : buildMatchQuery(search);
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE / 2, false);
+        Pager<Integer, ProductEntity> pager;
+        if (matchQuery != null) {
+            String namePrefix = escapeLike(search) + "%";
+            pager = new Pager<>(config, () -> productDao.searchProducts(
+                    matchQuery, search, namePrefix, menuItems, category, lowStockOnly, expiryCutoff));
+        } else {
+            pager = new Pager<>(config, () -> productDao.pageProducts(
+                    menuItems, category, lowStockOnly, expiryCutoff, sortOrder));
+        }
+        LiveData<PagingData<ProductEntity>> pages = PagingLiveData.getLiveData(pager);
+        MediatorLiveData<PagingData<Product>> mapped = new MediatorLiveData<>();
+        mapped.addSource(pages, data -> mapped.setValue(
+                PagingDataTransforms.map(data, executors.cpu(), this::mapEntityToProduct)));
+        return mapped;
+    }
+
+    /**
+     * Distinct category names of active inventory (menuItems false) or menu
+     * (menuItems true) products, alphabetically.
+     */
+    public LiveData<List<String>> getCategoryNames(boolean menuItems) {
+        return productDao.getCategoryNamesLive(menuItems ? 1 : 0);
+    }
+
+    /**
+     * Turns free text into an FTS4 prefix query ("cof lat" -> "cof* lat*").
+     * Punctuation splits terms and everything is lowercased so user input
+     * can never form MATCH operators. Returns null when no term remains.
+     */
+    static String buildMatchQuery(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (term.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(term).append('*');
+        }
+        return sb.length() == 0 ? null : sb.toString();
     }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     public void addProduct(Product product, OnProductAddedListener listener) {
         addProduct(product, null, listener);
     }
     public void addProduct(Product product, String imagePath, OnProductAddedListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        prepareImage(imagePath, prepared -> executors.dbWrite().execute(AppExecutors.Priority.HIGH, () -> {
             if (!AuthManager.getInstance().isCurrentUserApproved()) {
                 listener.onError("User not approved");
                 return;
@@ -116,8 +190,14 @@ public class ProductRepository {
             if (e.quantity < e.floorLevel) e.quantity = e.floorLevel;
             e.dateAdded = now;
             e.lastUpdated = now;
-            e.syncState = "PENDING";
-            if (imagePath != null && !imagePath.isEmpty()) {
+            queueForSync(e, "PENDING", ProductEntity.SYNC_PRIORITY_NORMAL);
+            e.markAllDirty();
+            if (prepared != null) {
+                e.imagePath = prepared.path;
+                e.imageHash = prepared.hash;
+                String knownUrl = productDao.findImageUrlByHash(prepared.hash);
+                if (knownUrl != null) e.imageUrl = knownUrl;
+            } else if (imagePath != null && !imagePath.isEmpty()) {
                 e.imagePath = imagePath;
             }
             long localId = productDao.insert(e);
@@ -125,13 +205,14 @@ public class ProductRepository {
             checkFloorForEntity(e);
             SyncScheduler.enqueueImmediateSync(application.getApplicationContext());
             listener.onProductAdded("local:" + localId);
-        });
+        }));
     }
     public void updateProduct(Product product, OnProductUpdatedListener listener) {
         updateProduct(product, null, listener);
     }
     public void updateProduct(Product product, String imagePath, OnProductUpdatedListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        String imageSource = imagePath != null && !imagePath.isEmpty() ? imagePath : product.getImagePath();
+        prepareImage(imageSource, prepared -> executors.dbWrite().execute(AppExecutors.Priority.HIGH, () -> {
             if (!AuthManager.getInstance().isCurrentUserApproved()) {
                 listener.onError("User not approved");
                 return;
@@ -142,6 +223,7 @@ public class ProductRepository {
             }
             long now = System.currentTimeMillis();
             if (existing != null) {
+                Map<String, Object> before = existing.toRemoteFields();
                 existing.productName = product.getProductName();
                 existing.categoryId = product.getCategoryId();
                 existing.categoryName = product.getCategoryName();
@@ -164,15 +246,26 @@ public class ProductRepository {
                 if (existing.quantity > existing.ceilingLevel) existing.quantity = existing.ceilingLevel;
                 if (existing.quantity < existing.floorLevel) existing.quantity = existing.floorLevel;
                 existing.lastUpdated = now;
-                existing.syncState = "PENDING";
-                if (imagePath != null && !imagePath.isEmpty()) {
+                queueForSync(existing, "PENDING", ProductEntity.SYNC_PRIORITY_NORMAL);
+                if (prepared != null) {
+                    existing.imagePath = prepared.path;
+                    if (!prepared.hash.equals(existing.imageHash)) {
+                        existing.imageHash = prepared.hash;
+                        existing.imageUrl = productDao.findImageUrlByHash(prepared.hash);
+                        existing.imageUploadAttempts = 0;
+                        existing.imageUploadSession = null;
+                    }
+                } else if (imagePath != null && !imagePath.isEmpty()) {
                     existing.imagePath = imagePath;
+                    existing.imageUploadAttempts = 0;
+                    existing.imageUploadSession = null;
                 } else {
                     existing.imagePath = product.getImagePath();
                 }
                 if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
                     existing.imageUrl = product.getImageUrl();
                 }
+                existing.markDirtySince(before);
                 productDao.update(existing);
                 checkExpiryForEntity(existing);
                 checkFloorForEntity(existing);
@@ -185,8 +278,13 @@ public class ProductRepository {
                 if (e.quantity > e.ceilingLevel) e.quantity = e.ceilingLevel;
                 if (e.quantity < e.floorLevel) e.quantity = e.floorLevel;
                 e.lastUpdated = now;
-                e.syncState = "PENDING";
-                if (imagePath != null && !imagePath.isEmpty()) {
+                queueForSync(e, "PENDING", ProductEntity.SYNC_PRIORITY_NORMAL);
+                e.markAllDirty();
+                if (prepared != null) {
+                    e.imagePath = prepared.path;
+                    e.imageHash = prepared.hash;
+                    e.imageUrl = productDao.findImageUrlByHash(prepared.hash);
+                } else if (imagePath != null && !imagePath.isEmpty()) {
                     e.imagePath = imagePath;
                 }
                 productDao.insert(e);
@@ -195,10 +293,17 @@ public class ProductRepository {
             }
             SyncScheduler.enqueueImmediateSync(application.getApplicationContext());
             listener.onProductUpdated();
-        });
+        }));
+    }
+    private void prepareImage(String imageSource, ImagePreparer.OnImagePreparedListener next) {
+        if (!ImagePreparer.needsPreparation(application, imageSource)) {
+            next.onImagePrepared(null);
+            return;
+        }
+        executors.cpu().execute(AppExecutors.Priority.HIGH, () -> next.onImagePrepared(ImagePreparer.prepare(application, imageSource)));
     }
     public void deleteProduct(String productId, OnProductDeletedListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.dbWrite().execute(AppExecutors.Priority.HIGH, () -> {
             if (!AuthManager.getInstance().isCurrentUserAdmin()) {
                 listener.onError("Unauthorized");
                 return;
@@ -210,7 +315,7 @@ public class ProductRepository {
                 long now = System.currentTimeMillis();
                 existing.isActive = false;
                 existing.lastUpdated = now;
-                existing.syncState = "DELETE_PENDING";
+                queueForSync(existing, "DELETE_PENDING", ProductEntity.SYNC_PRIORITY_NORMAL);
                 productDao.update(existing);
             }
             SyncScheduler.enqueueImmediateSync(application.getApplicationContext());
@@ -246,6 +351,7 @@ public class ProductRepository {
             o.put("isActive", e.isActive);
             o.put("imagePath", e.imagePath);
             o.put("imageUrl", e.imageUrl);
+            o.put("imageHash", e.imageHash);
             o.put("expiryDate", e.expiryDate);
             o.put("productType", e.productType);
             o.put("lastUpdated", e.lastUpdated);
@@ -271,7 +377,7 @@ public class ProductRepository {
         return result;
     }
     public void restoreArchived(String filename, OnProductRestoreListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.dbWrite().execute(AppExecutors.Priority.NORMAL, () -> {
             File dir = new File(application.getFilesDir(), "archives");
             if (!dir.exists()) {
                 listener.onError("Archive not found");
@@ -311,10 +417,12 @@ public class ProductRepository {
                 e.isActive = true;
                 e.imagePath = o.optString("imagePath", null);
                 e.imageUrl = o.optString("imageUrl", null);
+                e.imageHash = o.optString("imageHash", null);
                 e.expiryDate = o.optLong("expiryDate", 0);
                 e.productType = o.optString("productType", null);
                 e.lastUpdated = System.currentTimeMillis();
-                e.syncState = "PENDING";
+                queueForSync(e, "PENDING", ProductEntity.SYNC_PRIORITY_NORMAL);
+                e.markAllDirty();
                 if (e.floorLevel < 1) e.floorLevel = 1;
                 if (e.criticalLevel < 1) e.criticalLevel = 1;
                 if (e.ceilingLevel <= 0) e.ceilingLevel = computeDefaultCeiling(e.quantity, e.reorderLevel);
@@ -342,10 +450,12 @@ public class ProductRepository {
                     existing.isActive = true;
                     existing.imagePath = e.imagePath;
                     existing.imageUrl = e.imageUrl;
+                    existing.imageHash = e.imageHash;
                     existing.expiryDate = e.expiryDate;
                     existing.productType = e.productType;
                     existing.lastUpdated = e.lastUpdated;
-                    existing.syncState = "PENDING";
+                    queueForSync(existing, "PENDING", ProductEntity.SYNC_PRIORITY_NORMAL);
+                    existing.markAllDirty();
                     productDao.update(existing);
                 } else {
                     productDao.insert(e);
@@ -365,7 +475,7 @@ public class ProductRepository {
         });
     }
     public void permanentlyDeleteArchive(String filename, OnPermanentDeleteListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.dbWrite().execute(AppExecutors.Priority.NORMAL, () -> {
             try {
                 File dir = new File(application.getFilesDir(), "archives");
                 if (!dir.exists()) {
@@ -409,7 +519,18 @@ public class ProductRepository {
         return s.replaceAll("[^a-zA-Z0-9_-]", "_");
     }
     public void updateProductQuantity(String productId, int newQuantity, OnProductUpdatedListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        updateProductQuantity(productId, newQuantity, StockMovementEntity.TYPE_ADJUSTMENT, null, listener);
+    }
+
+    /**
+     * Sets the quantity and appends the resulting change to the stock ledger
+     * in the same transaction.
+     *
+     * @param movementType one of the StockMovementEntity TYPE_ constants
+     * @param reference    adjustment, PO or batch id the change belongs to; may be null
+     */
+    public void updateProductQuantity(String productId, int newQuantity, String movementType, String reference, OnProductUpdatedListener listener) {
+        executors.dbWrite().execute(AppExecutors.Priority.HIGH, () -> {
             ProductEntity existing = productDao.getByProductIdSync(productId);
             if (existing != null) {
                 int oldQuantity = existing.quantity;
@@ -420,25 +541,16 @@ public class ProductRepository {
                 int clamped = Math.max(existing.floorLevel, Math.min(existing.ceilingLevel, newQuantity));
                 existing.quantity = clamped;
                 existing.lastUpdated = System.currentTimeMillis();
-                existing.syncState = "PENDING";
-                productDao.update(existing);
-                SyncScheduler.enqueueImmediateSync(application.getApplicationContext());
-                boolean wasCritical = existing.criticalLevel > 0 && oldQuantity <= existing.criticalLevel;
-                boolean isNowCritical = existing.criticalLevel > 0 && clamped <= existing.criticalLevel;
-                boolean isNowLowOnly = !isNowCritical && existing.reorderLevel > 0 && clamped <= existing.reorderLevel;
-                boolean recoveredFromCritical = wasCritical && clamped > existing.criticalLevel;
-                if (recoveredFromCritical) {
-                    CriticalStockNotifier.getInstance().clearForProduct(existing.productId);
-                }
-                if (isNowCritical) {
-                    createCriticalStockAlert(existing);
-                    notifyCriticalStockListeners(existing);
-                } else if (isNowLowOnly) {
-                    createLowStockAlert(existing);
-                }
-                if (existing.floorLevel > 0 && clamped <= existing.floorLevel) {
-                    createFloorLevelAlert(existing);
-                }
+                queueForSync(existing, "PENDING", ProductEntity.SYNC_PRIORITY_HIGH);
+                existing.addQuantityDelta(clamped - oldQuantity);
+                db.runInTransaction(() -> {
+                    productDao.update(existing);
+                    if (clamped != oldQuantity) {
+                        movementDao.insert(StockMovementEntity.of(existing, movementType, clamped - oldQuantity, reference));
+                    }
+                });
+                SyncScheduler.enqueueExpeditedSync(application.getApplicationContext());
+                checkStockThresholds(existing, oldQuantity);
                 if (listener != null) {
                     listener.onProductUpdated();
                 }
@@ -448,6 +560,76 @@ public class ProductRepository {
             }
         });
     }
+
+    /**
+     * Mirrors a checkout into Room and the stock ledger. Blocking: call on the
+     * dbWrite lane inside the same transaction that inserts the order, so the
+     * order, the decrement and its SALE rows commit together. The remote
+     * decrement is pushed with the order by SalesSyncWorker, so the rows are
+     * not queued for product sync. Pass sign -1 to apply the sale and +1 to
+     * roll it back. Hand the result to onSoldQuantitiesCommitted once the
+     * transaction has committed.
+     */
+    List<SoldStockChange> applySoldQuantitiesSync(String orderId, Map<String, Integer> soldByProductId, int sign) {
+        List<SoldStockChange> changes = new ArrayList<>();
+        if (soldByProductId == null || soldByProductId.isEmpty()) return changes;
+        List<ProductEntity> rows = productDao.getByProductIdsSync(new ArrayList<>(soldByProductId.keySet()));
+        if (rows == null) return changes;
+        List<StockMovementEntity> movements = new ArrayList<>();
+        for (ProductEntity existing : rows) {
+            Integer sold = soldByProductId.get(existing.productId);
+            if (sold == null || sold == 0) continue;
+            int oldQuantity = existing.quantity;
+            existing.quantity = Math.max(0, oldQuantity + sign * sold);
+            if (existing.quantity == oldQuantity) continue;
+            productDao.update(existing);
+            // Record the change actually applied so the delta agrees with balanceAfter.
+            movements.add(StockMovementEntity.of(existing, StockMovementEntity.TYPE_SALE, existing.quantity - oldQuantity, orderId));
+            changes.add(new SoldStockChange(existing, oldQuantity));
+        }
+        if (!movements.isEmpty()) movementDao.insertAll(movements);
+        return changes;
+    }
+
+    /**
+     * Raises stock alerts for rows a committed sale brought down.
+     */
+    void onSoldQuantitiesCommitted(List<SoldStockChange> changes, int sign) {
+        if (sign >= 0 || changes == null) return;
+        for (SoldStockChange change : changes) {
+            checkStockThresholds(change.product, change.oldQuantity);
+        }
+    }
+
+    static class SoldStockChange {
+        final ProductEntity product;
+        final int oldQuantity;
+
+        SoldStockChange(ProductEntity product, int oldQuantity) {
+            this.product = product;
+            this.oldQuantity = oldQuantity;
+        }
+    }
+
+    private void checkStockThresholds(ProductEntity existing, int oldQuantity) {
+        int quantity = existing.quantity;
+        boolean wasCritical = existing.criticalLevel > 0 && oldQuantity <= existing.criticalLevel;
+        boolean isNowCritical = existing.criticalLevel > 0 && quantity <= existing.criticalLevel;
+        boolean isNowLowOnly = !isNowCritical && existing.reorderLevel > 0 && quantity <= existing.reorderLevel;
+        boolean recoveredFromCritical = wasCritical && quantity > existing.criticalLevel;
+        if (recoveredFromCritical) {
+            CriticalStockNotifier.getInstance().clearForProduct(existing.productId);
+        }
+        if (isNowCritical) {
+            createCriticalStockAlert(existing);
+            notifyCriticalStockListeners(existing);
+        } else if (isNowLowOnly) {
+            createLowStockAlert(existing);
+        }
+        if (existing.floorLevel > 0 && quantity <= existing.floorLevel) {
+            createFloorLevelAlert(existing);
+        }
+    }
     private void notifyCriticalStockListeners(ProductEntity e) {
         Product p = mapEntityToProduct(e);
         for (OnCriticalStockListener l : criticalStockListeners) {
@@ -506,7 +688,9 @@ public class ProductRepository {
         } else {
             message = "Expiry alert for " + name + ".";
         }
-        alertRepository.addAlertIfNotExists(e.productId, type, message, System.currentTimeMillis(), new AlertRepository.OnAlertAddedListener() {
+        // One alert per stage for each expiry date, however many sweeps see it.
+        String window = "exp" + AlertRepository.dayWindow(e.expiryDate);
+        alertRepository.addAlertIfNotExists(e.productId, type, window, message, System.currentTimeMillis(), new AlertRepository.OnAlertAddedListener() {
             @Override
             public void onAlertAdded(String alertId) {
             }
@@ -537,8 +721,9 @@ public class ProductRepository {
         }
     }
     public void runExpirySweep() {
-        Executors.newSingleThreadExecutor().execute(() -> {
-            List<ProductEntity> entities = productDao.getAllProductsSync();
+        executors.dbRead().execute(AppExecutors.Priority.LOW, () -> {
+            long expiryCutoff = System.currentTimeMillis() + 8L * 24L * 60L * 60L * 1000L;
+            List<ProductEntity> entities = productDao.getAlertCandidatesSync(expiryCutoff);
             if (entities == null) return;
             for (ProductEntity e : entities) {
                 checkExpiryForEntity(e);
@@ -546,8 +731,37 @@ public class ProductRepository {
             }
         });
     }
+    /**
+     * Scanner fast path: one read on the indexed barcode column, without
+     * touching any product list.
+     */
+    public void findByBarcode(String barcode, OnProductFetchedListener listener) {
+        String code = normalizeBarcode(barcode);
+        if (code == null) {
+            listener.onError("Product not found");
+            return;
+        }
+        executors.dbRead().execute(AppExecutors.Priority.HIGH, () -> {
+            ProductEntity e = productDao.getByBarcodeSync(code);
+            if (e != null) {
+                listener.onProductFetched(mapEntityToProduct(e));
+            } else {
+                listener.onError("Product not found");
+            }
+        });
+    }
+
+    /**
+     * Scanners append whitespace or a newline; a blank code matches nothing.
+     */
+    static String normalizeBarcode(String barcode) {
+        if (barcode == null) return null;
+        String trimmed = barcode.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
     public void getProductById(String productId, OnProductFetchedListener listener) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        executors.dbRead().execute(AppExecutors.Priority.HIGH, () -> {
             ProductEntity e = productDao.getByProductIdSync(productId);
             if (e != null) {
                 listener.onProductFetched(mapEntityToProduct(e));
@@ -556,82 +770,142 @@ public class ProductRepository {
             }
         });
     }
-    public void upsertFromRemote(Product p) {
-        if (p == null || p.getProductId() == null) return;
-        Executors.newSingleThreadExecutor().execute(() -> {
-            ProductEntity existing = productDao.getByProductIdSync(p.getProductId());
+    public void upsertFromRemoteBatch(List<Product> products, Runnable onComplete) {
+        applyRemoteChanges(products, null, onComplete);
+    }
+    public void applyRemoteChanges(List<Product> products, List<String> deletedProductIds, Runnable onComplete) {
+        boolean noUpserts = products == null || products.isEmpty();
+        boolean noDeletes = deletedProductIds == null || deletedProductIds.isEmpty();
+        if (noUpserts && noDeletes) {
+            if (onComplete != null) onComplete.run();
+            return;
+        }
+        executors.dbWrite().execute(AppExecutors.Priority.LOW, () -> {
+            Map<String, Product> incoming = new LinkedHashMap<>();
+            for (Product p : noUpserts ? new ArrayList<Product>() : products) {
+                if (p == null || p.getProductId() == null || p.getProductId().isEmpty()) continue;
+                incoming.put(p.getProductId(), p);
+            }
+            Map<String, ProductEntity> existingById = new HashMap<>();
+            List<String> ids = new ArrayList<>(incoming.keySet());
+            Map<String, Integer> unsyncedSold = getUnsyncedSoldQuantities(ids);
+            for (int i = 0; i < ids.size(); i += LOOKUP_CHUNK_SIZE) {
+                List<ProductEntity> found = productDao.getByProductIdsSync(ids.subList(i, Math.min(ids.size(), i + LOOKUP_CHUNK_SIZE)));
+                if (found == null) continue;
+                for (ProductEntity e : found) {
+                    existingById.put(e.productId, e);
+                }
+            }
             long now = System.currentTimeMillis();
-            if (existing != null) {
-                existing.productName = p.getProductName();
-                existing.categoryId = p.getCategoryId();
-                existing.categoryName = p.getCategoryName();
-                existing.description = p.getDescription();
-                existing.costPrice = p.getCostPrice();
-                existing.sellingPrice = p.getSellingPrice();
-                existing.quantity = p.getQuantity();
-                existing.reorderLevel = p.getReorderLevel();
-                existing.criticalLevel = p.getCriticalLevel();
-                existing.ceilingLevel = p.getCeilingLevel();
-                existing.floorLevel = p.getFloorLevel();
-                existing.unit = p.getUnit();
-                existing.barcode = p.getBarcode();
-                existing.supplier = p.getSupplier();
-                existing.dateAdded = p.getDateAdded();
-                existing.addedBy = p.getAddedBy();
-                existing.isActive = p.isActive();
-                existing.imageUrl = p.getImageUrl();
-                if (p.getImagePath() != null && !p.getImagePath().isEmpty()) {
-                    existing.imagePath = p.getImagePath();
+            List<ProductEntity> updates = new ArrayList<>();
+            List<ProductEntity> inserts = new ArrayList<>();
+            List<StockMovementEntity> movements = new ArrayList<>();
+            for (Product p : incoming.values()) {
+                ProductEntity existing = existingById.get(p.getProductId());
+                if (existing != null) {
+                    int oldQuantity = existing.quantity;
+                    applyRemoteFields(existing, p, now, unsyncedSold);
+                    updates.add(existing);
+                    if (existing.quantity != oldQuantity) {
+                        StockMovementEntity movement = StockMovementEntity.of(existing, StockMovementEntity.TYPE_REMOTE, existing.quantity - oldQuantity, null);
+                        movement.createdAt = now;
+                        movements.add(movement);
+                    }
+                } else {
+                    ProductEntity e = new ProductEntity();
+                    applyRemoteFields(e, p, now, unsyncedSold);
+                    inserts.add(e);
                 }
-                existing.expiryDate = p.getExpiryDate();
-                existing.productType = p.getProductType();
-                existing.lastUpdated = now;
-                existing.syncState = "SYNCED";
-                if (existing.floorLevel < 1) existing.floorLevel = 1;
-                if (existing.criticalLevel < 1) existing.criticalLevel = 1;
-                if (existing.ceilingLevel <= 0) existing.ceilingLevel = computeDefaultCeiling(existing.quantity, existing.reorderLevel);
-                if (existing.ceilingLevel > 9999) existing.ceilingLevel = 9999;
-                if (existing.quantity > existing.ceilingLevel) existing.quantity = existing.ceilingLevel;
-                productDao.update(existing);
-                checkExpiryForEntity(existing);
-                checkFloorForEntity(existing);
-            } else {
-                ProductEntity e = new ProductEntity();
-                e.productId = p.getProductId();
-                e.productName = p.getProductName();
-                e.categoryId = p.getCategoryId();
-                e.categoryName = p.getCategoryName();
-                e.description = p.getDescription();
-                e.costPrice = p.getCostPrice();
-                e.sellingPrice = p.getSellingPrice();
-                e.quantity = p.getQuantity();
-                e.reorderLevel = p.getReorderLevel();
-                e.criticalLevel = p.getCriticalLevel();
-                e.ceilingLevel = p.getCeilingLevel();
-                e.floorLevel = p.getFloorLevel();
-                e.unit = p.getUnit();
-                e.barcode = p.getBarcode();
-                e.supplier = p.getSupplier();
-                e.dateAdded = p.getDateAdded();
-                e.addedBy = p.getAddedBy();
-                e.isActive = p.isActive();
-                e.imageUrl = p.getImageUrl();
-                e.imagePath = p.getImagePath();
-                e.expiryDate = p.getExpiryDate();
-                e.productType = p.getProductType();
-                e.lastUpdated = now;
-                e.syncState = "SYNCED";
-                if (e.floorLevel < 1) e.floorLevel = 1;
-                if (e.criticalLevel < 1) e.criticalLevel = 1;
-                if (e.ceilingLevel <= 0) e.ceilingLevel = computeDefaultCeiling(e.quantity, e.reorderLevel);
-                if (e.ceilingLevel > 9999) e.ceilingLevel = 9999;
-                if (e.quantity > e.ceilingLevel) e.quantity = e.ceilingLevel;
-                productDao.insert(e);
+            }
+            List<String> deletes = new ArrayList<>();
+            if (!noDeletes) {
+                for (String id : deletedProductIds) {
+                    if (id != null && !id.isEmpty() && !incoming.containsKey(id)) deletes.add(id);
+                }
+            }
+            // Quantity changes made on other devices go into the ledger with
+            // the products rows, so reports walking back from products.quantity
+            // stay consistent with what this device has seen.
+            db.runInTransaction(() -> {
+                productDao.applyRemoteBatch(updates, inserts, deletes);
+                if (!movements.isEmpty()) movementDao.insertAll(movements);
+            });
+            for (ProductEntity e : updates) {
+                checkExpiryForEntity(e);
+                checkFloorForEntity(e);
+            }
+            for (ProductEntity e : inserts) {
                 checkExpiryForEntity(e);
                 checkFloorForEntity(e);
             }
+            if (onComplete != null) onComplete.run();
         });
     }
+    /**
+     * Sales still waiting in the outbox are not part of the server quantity
+     * yet, so they are subtracted again when a remote snapshot is merged.
+     */
+    private Map<String, Integer> getUnsyncedSoldQuantities(List<String> productIds) {
+        Map<String, Integer> sold = new HashMap<>();
+        for (int i = 0; i < productIds.size(); i += LOOKUP_CHUNK_SIZE) {
+            List<SalesDao.ProductQuantity> rows = salesDao.getUnsyncedSoldQuantities(productIds.subList(i, Math.min(productIds.size(), i + LOOKUP_CHUNK_SIZE)));
+            if (rows == null) continue;
+            for (SalesDao.ProductQuantity row : rows) {
+                sold.put(row.productId, row.quantity);
+            }
+        }
+        return sold;
+    }
+
+    private void applyRemoteFields(ProductEntity e, Product p, long now, Map<String, Integer> unsyncedSold) {
+        boolean hasLocalChanges = e.syncState != null && !"SYNCED".equals(e.syncState);
+        Set<String> dirty = hasLocalChanges ? e.getDirtyFieldSet() : new HashSet<String>();
+        if (hasLocalChanges && (dirty.contains(ProductEntity.DIRTY_ALL) || "DELETE_PENDING".equals(e.syncState))) {
+            return;
+        }
+        e.productId = p.getProductId();
+        if (!dirty.contains("productName")) e.productName = p.getProductName();
+        if (!dirty.contains("categoryId")) e.categoryId = p.getCategoryId();
+        if (!dirty.contains("categoryName")) e.categoryName = p.getCategoryName();
+        if (!dirty.contains("description")) e.description = p.getDescription();
+        if (!dirty.contains("costPrice")) e.costPrice = p.getCostPrice();
+        if (!dirty.contains("sellingPrice")) e.sellingPrice = p.getSellingPrice();
+        if (!dirty.contains("quantity")) {
+            Integer sold = unsyncedSold.get(p.getProductId());
+            int quantity = p.getQuantity() + (hasLocalChanges ? e.pendingQuantityDelta : 0) - (sold != null ? sold : 0);
+            e.quantity = Math.max(0, quantity);
+        }
+        if (!dirty.contains("reorderLevel")) e.reorderLevel = p.getReorderLevel();
+        if (!dirty.contains("criticalLevel")) e.criticalLevel = p.getCriticalLevel();
+        if (!dirty.contains("ceilingLevel")) e.ceilingLevel = p.getCeilingLevel();
+        if (!dirty.contains("floorLevel")) e.floorLevel = p.getFloorLevel();
+        if (!dirty.contains("unit")) e.unit = p.getUnit();
+        if (!dirty.contains("barcode")) e.barcode = p.getBarcode();
+        if (!dirty.contains("supplier")) e.supplier = p.getSupplier();
+        if (!dirty.contains("dateAdded")) e.dateAdded = p.getDateAdded();
+        if (!dirty.contains("addedBy")) e.addedBy = p.getAddedBy();
+        if (!dirty.contains("isActive")) e.isActive = p.isActive();
+        if (!dirty.contains("imageUrl")) e.imageUrl = p.getImageUrl();
+        if (p.getImagePath() != null && !p.getImagePath().isEmpty()) {
+            e.imagePath = p.getImagePath();
+        }
+        if (!dirty.contains("imageHash") && p.getImageHash() != null && !p.getImageHash().isEmpty()) {
+            e.imageHash = p.getImageHash();
+        }
+        if (!dirty.contains("expiryDate")) e.expiryDate = p.getExpiryDate();
+        if (!dirty.contains("productType")) e.productType = p.getProductType();
+        if (!hasLocalChanges) {
+            e.lastUpdated = now;
+            e.syncState = "SYNCED";
+            e.dirtyFields = null;
+            e.pendingQuantityDelta = 0;
+        }
+        if (e.floorLevel < 1) e.floorLevel = 1;
+        if (e.criticalLevel < 1) e.criticalLevel = 1;
+        if (e.ceilingLevel <= 0) e.ceilingLevel = computeDefaultCeiling(e.quantity, e.reorderLevel);
+        if (e.ceilingLevel > 9999) e.ceilingLevel = 9999;
+        if (e.quantity > e.ceilingLevel) e.quantity = e.ceilingLevel;
+    }
     private ProductEntity mapProductToEntity(Product p) {
         ProductEntity e = new ProductEntity();
         if (p == null) return e;
@@ -656,6 +930,7 @@ public class ProductRepository {
         e.imageUrl = p.getImageUrl();
         e.expiryDate = p.getExpiryDate();
         e.productType = p.getProductType();
+        e.imageHash = p.getImageHash();
         return e;
     }
     private Product mapEntityToProduct(ProductEntity e) {
@@ -683,32 +958,81 @@ public class ProductRepository {
         p.setImageUrl(e.imageUrl);
         p.setExpiryDate(e.expiryDate);
         p.setProductType(e.productType);
+        p.setImageHash(e.imageHash);
         return p;
     }
-    public void retrySync(long localId) {
-        Executors.newSingleThreadExecutor().execute(() -> {
-            ProductEntity e = productDao.getByLocalId(localId);
-            if (e != null) {
-                productDao.setSyncInfo(localId, e.productId, "PENDING");
+    /**
+     * Number of products SyncWorker gave up on after repeated failures.
+     */
+    public LiveData<Integer> getDeadLetterCount() {
+        return productDao.observeDeadLetterCount();
+    }
+
+    /**
+     * Puts every dead-lettered product back in the sync queue with a fresh
+     * attempt budget.
+     */
+    public void requeueDeadLetters() {
+        executors.dbWrite().execute(AppExecutors.Priority.NORMAL, () -> {
+            if (productDao.requeueDeadLetters() > 0) {
                 SyncScheduler.enqueueImmediateSync(application.getApplicationContext());
             }
         });
     }
 
     public void refreshProducts() {
-        LiveData<List<ProductEntity>> source = productDao.getAllProductsLive();
-        allProducts.removeSource(source);
-        allProducts.addSource(source, entities -> {
+        allProducts.removeSource(productsSource);
+        productsSource = productDao.getAllProductsLive();
+        allProducts.addSource(productsSource, this::publishProducts);
+    }
+
+    /**
+     * Maps the full table for getAllProducts() observers on the cpu lane.
+     * Metrics have their own source and never keep this one active.
+     */
+    private void publishProducts(List<ProductEntity> entities) {
+        long generation = productsGeneration.incrementAndGet();
+        executors.cpu().execute(AppExecutors.Priority.NORMAL, () -> {
             List<Product> list = new ArrayList<>();
             if (entities != null) {
                 for (ProductEntity e : entities) {
-                    Product p = mapEntityToProduct(e);
-                    list.add(p);
+                    list.add(mapEntityToProduct(e));
                 }
             }
-            allProducts.setValue(list);
+            synchronized (productsGeneration) {
+                if (generation != productsGeneration.get()) return;
+                allProducts.postValue(list);
+            }
         });
     }
+
+    /**
+     * Maps and diffs the emitted rows on the cpu lane, so metrics cost the
+     * main thread nothing beyond queueing the task.
+     */
+    private void publishMetrics(List<ProductEntity> entities) {
+        long generation = metricsGeneration.incrementAndGet();
+        executors.cpu().execute(AppExecutors.Priority.NORMAL, () -> {
+            synchronized (metricsIndex) {
+                // A newer emission is queued behind this one and carries the full list.
+                if (generation != metricsGeneration.get()) return;
+                List<Product> products = new ArrayList<>();
+                if (entities != null) {
+                    for (ProductEntity e : entities) {
+                        products.add(mapEntityToProduct(e));
+                    }
+                }
+                metricsIndex.update(products);
+                inventoryMetrics.postValue(metricsIndex.snapshot());
+            }
+        });
+    }
+    private void queueForSync(ProductEntity e, String syncState, int priority) {
+        e.syncState = syncState;
+        e.syncAttempts = 0;
+        e.nextSyncAt = 0;
+        e.syncPriority = priority;
+    }
     private int computeDefaultCeiling(int quantity, int reorderLevel) {
         int result;
         if (reorderLevel > 0) {
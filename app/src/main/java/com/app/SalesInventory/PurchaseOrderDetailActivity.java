@@ -106,7 +106,7 @@ public class PurchaseOrderDetailActivity extends BaseActivity {
                     @Override
                     public void onProductFetched(Product product) {
                         int newQty = product.getQuantity() + qty;
-                        productRepository.updateProductQuantity(productId, newQty, new ProductRepository.OnProductUpdatedListener() {
+                        productRepository.updateProductQuantity(productId, newQty, StockMovementEntity.TYPE_RECEIPT, poId, new ProductRepository.OnProductUpdatedListener() {
                             @Override
                             public void onProductUpdated() {
                             }
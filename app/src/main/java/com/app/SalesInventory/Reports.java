@@ -27,11 +27,9 @@ import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 
 import java.util.Locale;
-import java.util.Map;
 
 public class Reports extends BaseActivity  {
 
@@ -47,6 +45,7 @@ public class Reports extends BaseActivity  {
 
     private List<Product> productList = new ArrayList<>();
     private List<Sales> salesList = new ArrayList<>();
+    private List<DailySalesRollupEntity> dailyRollups = new ArrayList<>();
     private ReportAdapter adapter;
     private List<ReportItem> reportItems;
 
@@ -125,6 +124,11 @@ public class Reports extends BaseActivity  {
             if (sales != null) {
                 salesList = sales;
                 updateSalesStats();
+            }
+        });
+        SalesRollupRepository.getInstance(getApplication()).observeRollups().observe(this, rollups -> {
+            if (rollups != null) {
+                dailyRollups = rollups;
                 showSalesReport();
             }
         });
@@ -153,34 +157,13 @@ public class Reports extends BaseActivity  {
 
     private void showSalesReport() {
         reportItems.clear();
-        if (salesList != null && !salesList.isEmpty()) {
-            SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            Map<String, DailySummary> dailyMap = new HashMap<>();
-            for (Sales s : salesList) {
-                long ts = s.getDate() > 0 ? s.getDate() : s.getTimestamp();
-                String dayKey = dayFormat.format(new Date(ts));
-                DailySummary ds = dailyMap.get(dayKey);
-                if (ds == null) {
-                    ds = new DailySummary(dayKey);
-                    dailyMap.put(dayKey, ds);
-                }
-                ds.transactionCount++;
-                ds.netSales += s.getTotalPrice();
-                if ("DELIVERY".equals(s.getDeliveryType())) {
-                    ds.deliveryCount++;
-                    ds.deliverySales += s.getTotalPrice();
-                }
-            }
-            List<String> keys = new ArrayList<>(dailyMap.keySet());
-            java.util.Collections.sort(keys);
-            for (String day : keys) {
-                DailySummary ds = dailyMap.get(day);
-                if (ds == null) continue;
+        if (dailyRollups != null) {
+            for (DailySalesRollupEntity day : dailyRollups) {
+                if (day.transactionCount <= 0) continue;
                 String name = "Sales Journal";
-                String dateStr = day;
-                String qtyStr = "Txns: " + ds.transactionCount + " | Deliveries: " + ds.deliveryCount;
-                String amountStr = String.format(Locale.getDefault(), "₱%.2f", ds.netSales);
-                reportItems.add(new ReportItem(name, dateStr, qtyStr, amountStr));
+                String qtyStr = "Txns: " + day.transactionCount + " | Deliveries: " + day.deliveryCount;
+                String amountStr = String.format(Locale.getDefault(), "₱%.2f", day.revenue);
+                reportItems.add(new ReportItem(name, day.dayKey, qtyStr, amountStr));
             }
         }
         adapter.notifyDataSetChanged();
@@ -349,31 +332,11 @@ public class Reports extends BaseActivity  {
         try {
             writer = new FileWriter(file);
             writer.append("Date,Transaction Count,Net Sales,Delivery Count,Delivery Net Sales\n");
-            if (salesList != null && !salesList.isEmpty()) {
-                SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                Map<String, DailySummary> dailyMap = new HashMap<>();
-                for (Sales s : salesList) {
-                    long ts = s.getDate() > 0 ? s.getDate() : s.getTimestamp();
-                    String dayKey = dayFormat.format(new Date(ts));
-                    DailySummary ds = dailyMap.get(dayKey);
-                    if (ds == null) {
-                        ds = new DailySummary(dayKey);
-                        dailyMap.put(dayKey, ds);
-                    }
-                    ds.transactionCount++;
-                    ds.netSales += s.getTotalPrice();
-                    if ("DELIVERY".equals(s.getDeliveryType())) {
-                        ds.deliveryCount++;
-                        ds.deliverySales += s.getTotalPrice();
-                    }
-                }
-                List<String> keys = new ArrayList<>(dailyMap.keySet());
-                java.util.Collections.sort(keys);
-                for (String day : keys) {
-                    DailySummary ds = dailyMap.get(day);
-                    if (ds == null) continue;
+            if (dailyRollups != null) {
+                for (DailySalesRollupEntity day : dailyRollups) {
+                    if (day.transactionCount <= 0) continue;
                     writer.append(String.format(Locale.getDefault(), "\"%s\",%d,%.2f,%d,%.2f\n",
-                            day, ds.transactionCount, ds.netSales, ds.deliveryCount, ds.deliverySales));
+                            day.dayKey, day.transactionCount, day.revenue, day.deliveryCount, day.deliveryRevenue));
                 }
             }
             writer.flush();
@@ -577,21 +540,6 @@ public class Reports extends BaseActivity  {
         }
     }
 
-    private static class DailySummary {
-        String dateKey;
-        int transactionCount;
-        double netSales;
-        int deliveryCount;
-        double deliverySales;
-        DailySummary(String dateKey) {
-            this.dateKey = dateKey;
-            this.transactionCount = 0;
-            this.netSales = 0;
-            this.deliveryCount = 0;
-            this.deliverySales = 0;
-        }
-    }
-
     private class ReportAdapter extends android.widget.BaseAdapter {
         private android.content.Context context;
         private List<ReportItem> items;
@@ -0,0 +1,117 @@
+package com.app.SalesInventory;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running revenue totals maintained from individual sale additions and
+ * removals. Day and month windows are half-open [start, nextStart) so a sale
+ * stamped exactly at midnight belongs to the new day. When the clock leaves
+ * the current day, rollOver recomputes the windowed totals once.
+ */
+class SalesAggregates {
+    private static final String UNKNOWN_METHOD = "Unknown";
+
+    private double lifetime;
+    private double today;
+    private double month;
+    private final Map<String, Double> byPaymentMethod = new HashMap<>();
+    private long dayStart;
+    private long nextDayStart;
+    private long monthStart;
+    private long nextMonthStart;
+
+    SalesAggregates() {
+        resetWindows(System.currentTimeMillis());
+    }
+
+    void clear() {
+        lifetime = 0;
+        today = 0;
+        month = 0;
+        byPaymentMethod.clear();
+    }
+
+    void add(Sales sale) {
+        apply(sale, 1);
+    }
+
+    void remove(Sales sale) {
+        apply(sale, -1);
+    }
+
+    /**
+     * Moves the day/month windows forward if now is past the current day and
+     * rebuilds today/month from the given sales. Returns true when anything
+     * changed.
+     */
+    boolean rollOverIfNeeded(long now, Collection<Sales> all) {
+        if (now >= dayStart && now < nextDayStart) return false;
+        resetWindows(now);
+        today = 0;
+        month = 0;
+        for (Sales sale : all) {
+            long ts = sale.getTimestamp();
+            double amount = sale.getTotalPrice();
+            if (ts >= dayStart && ts < nextDayStart) today += amount;
+            if (ts >= monthStart && ts < nextMonthStart) month += amount;
+        }
+        return true;
+    }
+
+    long getMillisUntilRollOver(long now) {
+        return Math.max(0, nextDayStart - now);
+    }
+
+    double getLifetime() {
+        return lifetime;
+    }
+
+    double getToday() {
+        return today;
+    }
+
+    double getMonth() {
+        return month;
+    }
+
+    Map<String, Double> getByPaymentMethod() {
+        return new HashMap<>(byPaymentMethod);
+    }
+
+    private void apply(Sales sale, int sign) {
+        if (sale == null) return;
+        double amount = sign * sale.getTotalPrice();
+        long ts = sale.getTimestamp();
+        lifetime += amount;
+        if (ts >= dayStart && ts < nextDayStart) today += amount;
+        if (ts >= monthStart && ts < nextMonthStart) month += amount;
+        String method = sale.getPaymentMethod() == null || sale.getPaymentMethod().isEmpty() ? UNKNOWN_METHOD : sale.getPaymentMethod();
+        Double current = byPaymentMethod.get(method);
+        double updated = (current == null ? 0 : current) + amount;
+        if (Math.abs(updated) < 0.005) {
+            byPaymentMethod.remove(method);
+        } else {
+            byPaymentMethod.put(method, updated);
+        }
+    }
+
+    private void resetWindows(long now) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(now);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        dayStart = cal.getTimeInMillis();
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        nextDayStart = cal.getTimeInMillis();
+        cal.setTimeInMillis(dayStart);
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        monthStart = cal.getTimeInMillis();
+        cal.add(Calendar.MONTH, 1);
+        nextMonthStart = cal.getTimeInMillis();
+    }
+}
@@ -21,6 +21,35 @@ public interface SalesDao {
     @Update
     void updateOrder(SalesOrderEntity order);
 
+    @Transaction
+    default long insertOrderWithItems(SalesOrderEntity order, List<SalesOrderItemEntity> items) {
+        long localId = insertOrder(order);
+        for (SalesOrderItemEntity item : items) {
+            item.orderLocalId = localId;
+        }
+        insertOrderItems(items);
+        return localId;
+    }
+
+    @Query("SELECT * FROM sales_orders WHERE remoteId = :remoteId LIMIT 1")
+    SalesOrderEntity getOrderByRemoteIdSync(String remoteId);
+
+    @Transaction
+    @Query("SELECT * FROM sales_orders WHERE syncState IN ('PENDING','ERROR') AND nextSyncAt <= :now ORDER BY orderDate ASC LIMIT :limit")
+    List<SalesOrderWithItems> getDueOrdersSync(long now, int limit);
+
+    @Query("SELECT COUNT(*) FROM sales_orders WHERE syncState IN ('PENDING','ERROR')")
+    int countUnsyncedOrders();
+
+    @Query("UPDATE sales_orders SET syncState = 'SYNCED', syncAttempts = 0, nextSyncAt = 0 WHERE localId = :localId")
+    void markOrderSynced(long localId);
+
+    @Query("UPDATE sales_orders SET syncState = 'ERROR', syncAttempts = :attempts, nextSyncAt = :nextSyncAt WHERE localId = :localId")
+    void setOrderRetry(long localId, int attempts, long nextSyncAt);
+
+    @Query("SELECT i.productId AS productId, SUM(i.quantity) AS quantity FROM sales_order_items i INNER JOIN sales_orders o ON o.localId = i.orderLocalId WHERE o.syncState IN ('PENDING','ERROR') AND i.productId IN (:productIds) GROUP BY i.productId")
+    List<ProductQuantity> getUnsyncedSoldQuantities(List<String> productIds);
+
     @Query("SELECT * FROM sales_orders ORDER BY orderDate DESC")
     List<SalesOrderEntity> getAllOrdersSync();
 
@@ -34,4 +63,9 @@ public interface SalesDao {
 
     @Query("DELETE FROM sales_orders")
     void deleteAllOrders();
+
+    class ProductQuantity {
+        public String productId;
+        public int quantity;
+    }
 }
\ No newline at end of file
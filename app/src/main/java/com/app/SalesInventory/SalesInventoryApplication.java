@@ -18,6 +18,10 @@ public class SalesInventoryApplication extends Application {
         String owner = FirestoreManager.getInstance().getBusinessOwnerId();
         if (owner != null && !owner.isEmpty()) {
             productRemoteSyncer.startRealtimeSync(owner);
+            SalesRollupRepository.getInstance(this).startMirror();
+            SyncScheduler.enqueueRollupBackfill(this);
+            SyncScheduler.scheduleAlertRetention(this);
+            SyncScheduler.enqueueAlertTimestampMigration(this);
         }
     }
 
@@ -22,4 +22,12 @@ public class SalesOrderEntity {
     public String deliveryStatus;
     public long deliveryDate;
     public String status;
+    public String deliveryType;
+    public String deliveryName;
+    public String deliveryPhone;
+    public String deliveryAddress;
+    public String deliveryPaymentMethod;
+    public String syncState;
+    public int syncAttempts;
+    public long nextSyncAt;
 }
\ No newline at end of file
@@ -1,20 +1,31 @@
 package com.app.SalesInventory;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.lifecycle.MutableLiveData;
 
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class SalesRepository {
     private static final String TAG = "SalesRepository";
+    private static final int RECENT_SALES_LIMIT = 10;
+    static final int MAX_CHECKOUT_LINES = 240;
     private static SalesRepository instance;
     private FirestoreManager firestoreManager;
     private MutableLiveData<List<Sales>> allSales;
@@ -22,17 +33,43 @@ public class SalesRepository {
     private MutableLiveData<Double> totalMonthlyRevenue;
     private MutableLiveData<List<Sales>> recentSales;
     private Application application;
+    private final Map<String, Sales> salesById = new HashMap<>();
+    private final SharedSnapshotListener.Subscriber salesSubscriber = new SharedSnapshotListener.Subscriber() {
+        @Override
+        public void onSnapshot(QuerySnapshot snapshot, boolean full) {
+            onSalesSnapshot(snapshot, full);
+        }
+
+        @Override
+        public void onError(Exception error) {
+            Log.e(TAG, "Error loading sales", error);
+        }
+    };
+    private SharedSnapshotListener attachedSalesListener;
+    private int activeSalesViews = 0;
+    private boolean salesListsStale = false;
+    private final SalesAggregates aggregates = new SalesAggregates();
+    private MutableLiveData<Double> monthToDateSales;
+    private MutableLiveData<Map<String, Double>> salesByPaymentMethod;
+    private final Handler rollOverHandler = new Handler(Looper.getMainLooper());
+    private final Runnable rollOverTask = new Runnable() {
+        @Override
+        public void run() {
+            if (aggregates.rollOverIfNeeded(System.currentTimeMillis(), salesById.values())) {
+                publishAggregates();
+            }
+            scheduleRollOver();
+        }
+    };
 
     private SalesRepository() {
         firestoreManager = FirestoreManager.getInstance();
-        allSales = new MutableLiveData<>();
-        totalSalesToday = new MutableLiveData<>(0.0);
-        totalMonthlyRevenue = new MutableLiveData<>(0.0);
-        recentSales = new MutableLiveData<>();
-        loadAllSales();
-        loadTodaySales();
-        loadOverallRevenue();
-        loadRecentSales();
+        allSales = new SalesLiveData<>();
+        totalSalesToday = new SalesLiveData<>(0.0);
+        totalMonthlyRevenue = new SalesLiveData<>(0.0);
+        recentSales = new SalesLiveData<>();
+        monthToDateSales = new SalesLiveData<>(0.0);
+        salesByPaymentMethod = new SalesLiveData<>(new HashMap<>());
     }
 
     private SalesRepository(Application application) {
@@ -54,7 +91,7 @@ public class SalesRepository {
         return instance;
     }
 
-    private Sales createSalesFromSnapshot(DocumentSnapshot document) {
+    static Sales createSalesFromSnapshot(DocumentSnapshot document) {
         try {
             Sales sale = document.toObject(Sales.class);
             return sale;
@@ -64,7 +101,7 @@ public class SalesRepository {
         }
     }
 
-    private Sales createSalesFromMap(Map<String, Object> data) {
+    private static Sales createSalesFromMap(Map<String, Object> data) {
         if (data == null) {
             return null;
         }
@@ -178,161 +215,119 @@ public class SalesRepository {
         return sale;
     }
 
-    private void loadOverallRevenue() {
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath())
-                .addSnapshotListener((snapshot, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading overall revenue", error);
-                        return;
-                    }
-                    double totalLifetime = 0.0;
-                    if (snapshot != null) {
-                        for (DocumentSnapshot document : snapshot.getDocuments()) {
-                            Sales sale = createSalesFromSnapshot(document);
-                            if (sale != null) {
-                                totalLifetime += sale.getTotalPrice();
-                            }
-                        }
-                    }
-                    totalMonthlyRevenue.postValue(totalLifetime);
-                });
+    private void onSalesSnapshot(QuerySnapshot snapshot, boolean full) {
+        if (full) {
+            salesById.clear();
+            aggregates.clear();
+            for (DocumentSnapshot document : snapshot.getDocuments()) {
+                putSale(document);
+            }
+        } else {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    aggregates.remove(salesById.remove(change.getDocument().getId()));
+                } else {
+                    putSale(change.getDocument());
+                }
+            }
+        }
+        aggregates.rollOverIfNeeded(System.currentTimeMillis(), salesById.values());
+        publishAggregates();
+        publishSalesLists();
     }
 
-    private void loadAllSales() {
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath())
-                .orderBy("timestamp", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .addSnapshotListener((snapshot, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading all sales", error);
-                        return;
-                    }
-                    if (snapshot != null) {
-                        List<Sales> salesList = new ArrayList<>();
-                        for (DocumentSnapshot document : snapshot.getDocuments()) {
-                            try {
-                                Sales sale = createSalesFromSnapshot(document);
-                                if (sale != null) {
-                                    sale.setId(document.getId());
-                                    salesList.add(sale);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error deserializing sales document: " + document.getId(), e);
-                            }
-                        }
-                        allSales.postValue(salesList);
-                    }
-                });
+    private void putSale(DocumentSnapshot document) {
+        try {
+            Sales sale = createSalesFromSnapshot(document);
+            if (sale != null) {
+                sale.setId(document.getId());
+                aggregates.remove(salesById.put(document.getId(), sale));
+                aggregates.add(sale);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error deserializing sales document: " + document.getId(), e);
+        }
     }
 
-    private void loadTodaySales() {
-        long startOfDay = getStartOfDay();
-        long endOfDay = getEndOfDay();
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath())
-                .whereGreaterThanOrEqualTo("timestamp", startOfDay)
-                .whereLessThanOrEqualTo("timestamp", endOfDay)
-                .addSnapshotListener((snapshot, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading today's sales", error);
-                        return;
-                    }
-                    double total = 0.0;
-                    if (snapshot != null) {
-                        for (DocumentSnapshot document : snapshot.getDocuments()) {
-                            try {
-                                Sales sale = createSalesFromSnapshot(document);
-                                if (sale != null) {
-                                    total += sale.getTotalPrice();
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error deserializing sales document: " + document.getId(), e);
-                            }
-                        }
-                    }
-                    totalSalesToday.postValue(total);
-                });
+    private void publishAggregates() {
+        totalSalesToday.postValue(aggregates.getToday());
+        monthToDateSales.postValue(aggregates.getMonth());
+        totalMonthlyRevenue.postValue(aggregates.getLifetime());
+        salesByPaymentMethod.postValue(aggregates.getByPaymentMethod());
     }
 
-    private void loadMonthlySales() {
-        long startOfMonth = getStartOfMonth();
-        long endOfMonth = getEndOfMonth();
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath())
-                .whereGreaterThanOrEqualTo("timestamp", startOfMonth)
-                .whereLessThanOrEqualTo("timestamp", endOfMonth)
-                .addSnapshotListener((snapshot, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading monthly sales", error);
-                        return;
-                    }
-                    double total = 0.0;
-                    if (snapshot != null) {
-                        for (DocumentSnapshot document : snapshot.getDocuments()) {
-                            try {
-                                Sales sale = createSalesFromSnapshot(document);
-                                if (sale != null) {
-                                    total += sale.getTotalPrice();
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error deserializing sales document: " + document.getId(), e);
-                            }
-                        }
-                    }
-                    totalMonthlyRevenue.postValue(total);
-                });
+    private void publishSalesLists() {
+        if (!allSales.hasActiveObservers() && !recentSales.hasActiveObservers()) {
+            salesListsStale = true;
+            return;
+        }
+        salesListsStale = false;
+        List<Sales> salesList = new ArrayList<>(salesById.values());
+        Collections.sort(salesList, (a, b) -> Long.compare(b.getTimestamp(), a.getTimestamp()));
+        allSales.postValue(salesList);
+        recentSales.postValue(new ArrayList<>(salesList.subList(0, Math.min(RECENT_SALES_LIMIT, salesList.size()))));
     }
 
-    private void loadRecentSales() {
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath())
-                .orderBy("timestamp", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .limit(10)
-                .addSnapshotListener((snapshot, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading recent sales", error);
-                        return;
-                    }
-                    if (snapshot != null) {
-                        List<Sales> salesList = new ArrayList<>();
-                        for (DocumentSnapshot document : snapshot.getDocuments()) {
-                            try {
-                                Sales sale = createSalesFromSnapshot(document);
-                                if (sale != null) {
-                                    sale.setId(document.getId());
-                                    salesList.add(sale);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error deserializing sales document: " + document.getId(), e);
-                            }
-                        }
-                        recentSales.postValue(salesList);
-                    }
-                });
+    private void scheduleRollOver() {
+        rollOverHandler.removeCallbacks(rollOverTask);
+        rollOverHandler.postDelayed(rollOverTask, aggregates.getMillisUntilRollOver(System.currentTimeMillis()) + 1);
     }
 
     /**
-     * Force reload all sales data - call this to refresh the dashboard
+     * Re-attaches the shared sales listener so the next event is a full
+     * snapshot. Safe to call repeatedly; it never adds a second listener.
      */
-    public void reloadAllSales() {
-        loadAllSales();
+    public void refreshSales() {
+        salesListener().restart();
     }
 
-    /**
-     * Force reload today's sales - call this after a new sale completes
-     */
-    public void reloadTodaySales() {
-        loadTodaySales();
+    private SharedSnapshotListener salesListener() {
+        return SharedSnapshotListener.forCollection(firestoreManager.getUserSalesPath());
     }
 
-    /**
-     * Force reload monthly sales - call this after a new sale completes
-     */
-    public void reloadMonthlySales() {
-        loadMonthlySales();
+    private synchronized void onSalesViewActive() {
+        activeSalesViews++;
+        if (salesListsStale) {
+            publishSalesLists();
+        }
+        if (activeSalesViews == 1) {
+            attachedSalesListener = salesListener();
+            attachedSalesListener.acquire(salesSubscriber);
+            scheduleRollOver();
+        }
+    }
+
+    private synchronized void onSalesViewInactive() {
+        activeSalesViews = Math.max(0, activeSalesViews - 1);
+        if (activeSalesViews == 0 && attachedSalesListener != null) {
+            attachedSalesListener.release(salesSubscriber);
+            attachedSalesListener = null;
+            rollOverHandler.removeCallbacks(rollOverTask);
+        }
     }
 
     /**
-     * Force reload recent sales - call this to refresh activity feed
+     * LiveData that keeps the shared sales listener attached only while
+     * somebody observes it.
      */
-    public void reloadRecentSales() {
-        loadRecentSales();
+    private class SalesLiveData<T> extends MutableLiveData<T> {
+        SalesLiveData() {
+            super();
+        }
+
+        SalesLiveData(T value) {
+            super(value);
+        }
+
+        @Override
+        protected void onActive() {
+            onSalesViewActive();
+        }
+
+        @Override
+        protected void onInactive() {
+            onSalesViewInactive();
+        }
     }
 
     public MutableLiveData<List<Sales>> getAllSales() {
@@ -351,9 +346,12 @@ public class SalesRepository {
         return recentSales;
     }
 
-    public interface OnSaleAddedListener {
-        void onSaleAdded(String saleId);
-        void onError(String error);
+    public MutableLiveData<Double> getMonthToDateSales() {
+        return monthToDateSales;
+    }
+
+    public MutableLiveData<Map<String, Double>> getSalesByPaymentMethod() {
+        return salesByPaymentMethod;
     }
 
     public interface OnSalesDeletedListener {
@@ -361,11 +359,116 @@ public class SalesRepository {
         void onError(String error);
     }
 
-    public void addSale(Sales sale, OnSaleAddedListener listener) {
+    public interface OnCheckoutListener {
+        void onCheckoutCommitted(String orderId);
+        void onError(String error);
+    }
+
+    /**
+     * Commits the checkout to the local sales_orders outbox and returns
+     * immediately; SalesSyncWorker pushes the order header, its lines and the
+     * stock decrements to Firestore once connectivity allows. The orderId is
+     * the remote document id, so re-running a checkout is a no-op.
+     */
+    public void checkout(String orderId, List<Sales> lines, OnCheckoutListener listener) {
         if (!AuthManager.getInstance().isCurrentUserApproved()) {
             listener.onError("User not approved");
             return;
         }
+        if (orderId == null || orderId.isEmpty() || lines == null || lines.isEmpty()) {
+            listener.onError("Nothing to checkout");
+            return;
+        }
+        if (lines.size() > MAX_CHECKOUT_LINES) {
+            listener.onError("Order has too many lines");
+            return;
+        }
+        SalesInventoryApplication app = SalesInventoryApplication.getInstance();
+        AppDatabase db = AppDatabase.getInstance(app);
+        SalesDao salesDao = db.salesDao();
+        AppExecutors.getInstance().dbWrite().execute(AppExecutors.Priority.HIGH, () -> {
+            if (salesDao.getOrderByRemoteIdSync(orderId) != null) {
+                listener.onCheckoutCommitted(orderId);
+                return;
+            }
+            Sales first = lines.get(0);
+            SalesOrderEntity order = new SalesOrderEntity();
+            order.remoteId = orderId;
+            order.orderNumber = orderId.substring(0, Math.min(8, orderId.length())).toUpperCase();
+            order.orderDate = first.getDate() > 0 ? first.getDate() : System.currentTimeMillis();
+            order.paymentMethod = first.getPaymentMethod();
+            order.paymentStatus = "PAID";
+            order.deliveryType = first.getDeliveryType();
+            order.deliveryStatus = first.getDeliveryStatus();
+            order.deliveryDate = first.getDeliveryDate();
+            order.deliveryName = first.getDeliveryName();
+            order.deliveryPhone = first.getDeliveryPhone();
+            order.deliveryAddress = first.getDeliveryAddress();
+            order.deliveryPaymentMethod = first.getDeliveryPaymentMethod();
+            order.status = "COMPLETED";
+            order.syncState = "PENDING";
+
+            List<SalesOrderItemEntity> items = new ArrayList<>();
+            Map<String, Integer> soldByProduct = new LinkedHashMap<>();
+            for (Sales line : lines) {
+                SalesOrderItemEntity item = new SalesOrderItemEntity();
+                item.productId = line.getProductId();
+                item.productName = line.getProductName();
+                item.quantity = line.getQuantity();
+                item.unitPrice = line.getPrice();
+                item.lineTotal = line.getTotalPrice();
+                items.add(item);
+                order.subTotal += line.getPrice() * line.getQuantity();
+                order.totalAmount += line.getTotalPrice();
+                if (line.getProductId() != null && !line.getProductId().isEmpty()) {
+                    Integer sold = soldByProduct.get(line.getProductId());
+                    soldByProduct.put(line.getProductId(), (sold == null ? 0 : sold) + line.getQuantity());
+                }
+            }
+            order.discountAmount = Math.max(0, order.subTotal - order.totalAmount);
+            order.amountPaid = order.totalAmount;
+
+            ProductRepository productRepository = SalesInventoryApplication.getProductRepository();
+            List<ProductRepository.SoldStockChange> changes;
+            try {
+                changes = db.runInTransaction(() -> {
+                    salesDao.insertOrderWithItems(order, items);
+                    return productRepository.applySoldQuantitiesSync(orderId, soldByProduct, -1);
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to commit checkout " + orderId, e);
+                listener.onError(e.getMessage() == null ? "Failed to save sale" : e.getMessage());
+                return;
+            }
+            productRepository.onSoldQuantitiesCommitted(changes, -1);
+            SyncScheduler.enqueueSalesSync(app);
+            listener.onCheckoutCommitted(orderId);
+        });
+    }
+
+    static Map<String, Object> buildOrderHeader(String orderId, List<Sales> lines) {
+        Sales first = lines.get(0);
+        int totalQuantity = 0;
+        double totalAmount = 0;
+        for (Sales line : lines) {
+            totalQuantity += line.getQuantity();
+            totalAmount += line.getTotalPrice();
+        }
+        long date = first.getDate() > 0 ? first.getDate() : System.currentTimeMillis();
+        Map<String, Object> map = new HashMap<>();
+        map.put("orderId", orderId);
+        map.put("lineCount", lines.size());
+        map.put("totalQuantity", totalQuantity);
+        map.put("totalAmount", totalAmount);
+        map.put("paymentMethod", first.getPaymentMethod() != null ? first.getPaymentMethod() : "");
+        map.put("deliveryType", first.getDeliveryType() != null ? first.getDeliveryType() : "");
+        map.put("deliveryStatus", first.getDeliveryStatus() != null ? first.getDeliveryStatus() : "");
+        map.put("date", date);
+        map.put("timestamp", first.getTimestamp() > 0 ? first.getTimestamp() : date);
+        return map;
+    }
+
+    static Map<String, Object> buildSaleMap(Sales sale) {
         long now = System.currentTimeMillis();
         long date = sale.getDate() > 0 ? sale.getDate() : now;
         long ts = sale.getTimestamp() > 0 ? sale.getTimestamp() : date;
@@ -387,22 +490,31 @@ public class SalesRepository {
         map.put("deliveryPaymentMethod", sale.getDeliveryPaymentMethod() != null ? sale.getDeliveryPaymentMethod() : "");
         map.put("date", date);
         map.put("timestamp", ts);
-
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath()).add(map)
-                .addOnSuccessListener((DocumentReference documentReference) -> {
-                    String saleId = documentReference.getId();
-                    sale.setId(saleId);
-                    listener.onSaleAdded(saleId);
-                }).addOnFailureListener(e -> {
-                    listener.onError(e.getMessage() != null ? e.getMessage() : "Failed to add sale");
-                });
+        return map;
     }
 
+    /**
+     * Reads the sale inside the delete transaction so the rollup decrement
+     * uses the stored lines even when the sale is not in the local cache,
+     * and a concurrent delete of the same sale is only counted once.
+     */
     public void deleteSale(String saleId, OnSalesDeletedListener listener) {
-        firestoreManager.getDb().collection(firestoreManager.getUserSalesPath())
-                .document(saleId)
-                .delete()
-                .addOnSuccessListener(aVoid -> listener.onSaleDeleted())
+        FirebaseFirestore db = firestoreManager.getDb();
+        DocumentReference saleRef = db.collection(firestoreManager.getUserSalesPath()).document(saleId);
+        CollectionReference rollups = db.collection(firestoreManager.getUserSalesRollupsPath());
+        db.runTransaction(tx -> {
+                    DocumentSnapshot snapshot = tx.get(saleRef);
+                    if (!snapshot.exists()) return null;
+                    Sales stored = createSalesFromSnapshot(snapshot);
+                    tx.delete(saleRef);
+                    if (stored != null) {
+                        for (Map.Entry<String, Map<String, Object>> patch : SalesRollupRepository.buildIncrements(Collections.singletonList(stored), -1).entrySet()) {
+                            tx.set(rollups.document(patch.getKey()), patch.getValue(), SetOptions.merge());
+                        }
+                    }
+                    return null;
+                })
+                .addOnSuccessListener(ignored -> listener.onSaleDeleted())
                 .addOnFailureListener(e -> listener.onError(e.getMessage() != null ? e.getMessage() : "Failed to delete sale"));
     }
 
@@ -420,38 +532,4 @@ public class SalesRepository {
                 .document(sale.getId())
                 .update(updates);
     }
-
-    private long getStartOfDay() {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        calendar.set(java.util.Calendar.MINUTE, 0);
-        calendar.set(java.util.Calendar.SECOND, 0);
-        return calendar.getTimeInMillis();
-    }
-
-    private long getEndOfDay() {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 23);
-        calendar.set(java.util.Calendar.MINUTE, 59);
-        calendar.set(java.util.Calendar.SECOND, 59);
-        return calendar.getTimeInMillis();
-    }
-
-    private long getStartOfMonth() {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.set(java.util.Calendar.DAY_OF_MONTH, 1);
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        calendar.set(java.util.Calendar.MINUTE, 0);
-        calendar.set(java.util.Calendar.SECOND, 0);
-        return calendar.getTimeInMillis();
-    }
-
-    private long getEndOfMonth() {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.set(java.util.Calendar.DAY_OF_MONTH, calendar.getActualMaximum(java.util.Calendar.DAY_OF_MONTH));
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 23);
-        calendar.set(java.util.Calendar.MINUTE, 59);
-        calendar.set(java.util.Calendar.SECOND, 59);
-        return calendar.getTimeInMillis();
-    }
 }
\ No newline at end of file
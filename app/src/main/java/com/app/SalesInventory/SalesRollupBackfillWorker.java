@@ -0,0 +1,120 @@
+package com.app.SalesInventory;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One-off job that rebuilds every daily rollup from the raw sale lines, for
+ * owners whose history predates the rollup layer. Runs once per owner: the
+ * owner's salesRollups document carries the completion marker, so other
+ * devices skip it too.
+ *
+ * Increments committed while the sales are being read must not be
+ * overwritten. The lastUpdated of every rollup is noted before the read,
+ * and each absolute document is written in a transaction only if its
+ * rollup still carries that version. A day that moved in between is left
+ * alone and the job retries.
+ */
+public class SalesRollupBackfillWorker extends Worker {
+    private static final String TAG = "SalesRollupBackfill";
+    private static final String PREFS = "sales_rollups";
+    private static final String KEY_BACKFILLED_PREFIX = "backfilled_";
+    private static final String FIELD_BACKFILLED_AT = "backfilledAt";
+    private static final int DAYS_PER_TRANSACTION = 200;
+
+    public SalesRollupBackfillWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirestoreManager firestoreManager = FirestoreManager.getInstance();
+        String owner = firestoreManager.getBusinessOwnerId();
+        if (owner == null || owner.isEmpty()) return Result.success();
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        String flag = KEY_BACKFILLED_PREFIX + owner;
+        if (prefs.getBoolean(flag, false)) return Result.success();
+
+        FirebaseFirestore db = firestoreManager.getDb();
+        CollectionReference rollups = db.collection(firestoreManager.getUserSalesRollupsPath());
+        DocumentReference marker = rollups.getParent();
+        try {
+            DocumentSnapshot markerSnapshot = Tasks.await(marker.get());
+            if (markerSnapshot.exists() && markerSnapshot.get(FIELD_BACKFILLED_AT) != null) {
+                prefs.edit().putBoolean(flag, true).apply();
+                return Result.success();
+            }
+
+            Map<String, Timestamp> versions = new HashMap<>();
+            for (DocumentSnapshot doc : Tasks.await(rollups.get()).getDocuments()) {
+                versions.put(doc.getId(), doc.getTimestamp(SalesRollupRepository.FIELD_LAST_UPDATED));
+            }
+            QuerySnapshot snapshot = Tasks.await(db.collection(firestoreManager.getUserSalesPath()).get());
+            List<Sales> sales = new ArrayList<>();
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                Sales sale = SalesRepository.createSalesFromSnapshot(doc);
+                if (sale != null) sales.add(sale);
+            }
+            Map<String, Map<String, Object>> docs = SalesRollupRepository.buildDocuments(sales);
+            List<String> dayKeys = new ArrayList<>(docs.keySet());
+            int skipped = 0;
+            for (int start = 0; start < dayKeys.size(); start += DAYS_PER_TRANSACTION) {
+                List<String> chunk = dayKeys.subList(start, Math.min(dayKeys.size(), start + DAYS_PER_TRANSACTION));
+                Integer moved = Tasks.await(db.runTransaction(tx -> {
+                    List<String> unchanged = new ArrayList<>();
+                    for (String dayKey : chunk) {
+                        DocumentSnapshot current = tx.get(rollups.document(dayKey));
+                        Timestamp version = current.exists() ? current.getTimestamp(SalesRollupRepository.FIELD_LAST_UPDATED) : null;
+                        if (Objects.equals(version, versions.get(dayKey))) unchanged.add(dayKey);
+                    }
+                    for (String dayKey : unchanged) {
+                        tx.set(rollups.document(dayKey), docs.get(dayKey));
+                    }
+                    return chunk.size() - unchanged.size();
+                }));
+                skipped += moved == null ? 0 : moved;
+            }
+            if (skipped > 0) {
+                Log.w(TAG, skipped + " rollup days changed during backfill; retrying");
+                return Result.retry();
+            }
+
+            QuerySnapshot written = Tasks.await(rollups.get());
+            List<DailySalesRollupEntity> local = new ArrayList<>();
+            for (DocumentSnapshot doc : written.getDocuments()) {
+                local.add(SalesRollupRepository.fromSnapshot(doc));
+            }
+            SalesRollupRepository.getInstance((Application) getApplicationContext()).saveLocal(local);
+            Tasks.await(marker.set(Collections.singletonMap(FIELD_BACKFILLED_AT, firestoreManager.getServerTimestamp()), SetOptions.merge()));
+            prefs.edit().putBoolean(flag, true).apply();
+            Log.i(TAG, "Backfilled " + docs.size() + " daily rollups from " + sales.size() + " sales");
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Rollup backfill failed", e);
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.app.SalesInventory;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface SalesRollupDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<DailySalesRollupEntity> rollups);
+
+    @Query("SELECT * FROM daily_sales_rollups ORDER BY dayStart ASC")
+    LiveData<List<DailySalesRollupEntity>> observeAllRollups();
+
+    @Query("SELECT * FROM daily_sales_rollups WHERE dayStart >= :since ORDER BY dayStart ASC")
+    List<DailySalesRollupEntity> getRollupsSinceSync(long since);
+
+    @Query("DELETE FROM daily_sales_rollups")
+    void deleteAll();
+}
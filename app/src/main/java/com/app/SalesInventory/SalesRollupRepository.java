@@ -0,0 +1,289 @@
+package com.app.SalesInventory;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-day sales summaries (salesRollups/<owner>/items/<yyyy-MM-dd>). Rollups
+ * are bumped with FieldValue.increment in the same write that records a sale,
+ * mirrored into Room by a listener, and read by charts and reports instead of
+ * the raw sale lines.
+ */
+public class SalesRollupRepository {
+    private static final String TAG = "SalesRollupRepository";
+    static final String FIELD_DAY_KEY = "dayKey";
+    static final String FIELD_DAY_START = "dayStart";
+    static final String FIELD_REVENUE = "revenue";
+    static final String FIELD_TRANSACTION_COUNT = "transactionCount";
+    static final String FIELD_DELIVERY_COUNT = "deliveryCount";
+    static final String FIELD_DELIVERY_REVENUE = "deliveryRevenue";
+    static final String FIELD_WALK_IN_COUNT = "walkInCount";
+    static final String FIELD_WALK_IN_REVENUE = "walkInRevenue";
+    static final String FIELD_PRODUCT_QUANTITIES = "productQuantities";
+    static final String FIELD_LAST_UPDATED = "lastUpdated";
+
+    private static SalesRollupRepository instance;
+    private final SalesRollupDao rollupDao;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private SharedSnapshotListener mirrorListener;
+    private final SharedSnapshotListener.Subscriber mirrorSubscriber = new SharedSnapshotListener.Subscriber() {
+        @Override
+        public void onSnapshot(QuerySnapshot snapshot, boolean full) {
+            mirror(snapshot, full);
+        }
+
+        @Override
+        public void onError(Exception error) {
+            Log.e(TAG, "Rollup listener failed", error);
+        }
+    };
+
+    private SalesRollupRepository(Application application) {
+        rollupDao = AppDatabase.getInstance(application).salesRollupDao();
+    }
+
+    public static synchronized SalesRollupRepository getInstance(Application application) {
+        if (instance == null) {
+            instance = new SalesRollupRepository(application);
+        }
+        return instance;
+    }
+
+    public synchronized void startMirror() {
+        stopMirror();
+        mirrorListener = SharedSnapshotListener.forCollection(FirestoreManager.getInstance().getUserSalesRollupsPath());
+        mirrorListener.acquire(mirrorSubscriber);
+    }
+
+    public synchronized void stopMirror() {
+        if (mirrorListener != null) {
+            mirrorListener.release(mirrorSubscriber);
+            mirrorListener = null;
+        }
+    }
+
+    public LiveData<List<DailySalesRollupEntity>> observeRollups() {
+        return rollupDao.observeAllRollups();
+    }
+
+    /**
+     * Blocking read; call from a background lane.
+     */
+    public List<DailySalesRollupEntity> getRollupsSinceSync(long since) {
+        return rollupDao.getRollupsSinceSync(since);
+    }
+
+    void saveLocal(List<DailySalesRollupEntity> rollups) {
+        if (rollups == null || rollups.isEmpty()) return;
+        executors.dbWrite().execute(AppExecutors.Priority.LOW, () -> rollupDao.upsertAll(rollups));
+    }
+
+    private void mirror(QuerySnapshot snapshot, boolean full) {
+        List<DailySalesRollupEntity> changed = new ArrayList<>();
+        if (full) {
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                changed.add(fromSnapshot(doc));
+            }
+        } else {
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                if (change.getType() == DocumentChange.Type.REMOVED) continue;
+                changed.add(fromSnapshot(change.getDocument()));
+            }
+        }
+        saveLocal(changed);
+    }
+
+    static String dayKey(long timestamp) {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date(timestamp));
+    }
+
+    static long dayStart(long timestamp) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(timestamp);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
+    static long saleTime(Sales sale) {
+        return sale.getDate() > 0 ? sale.getDate() : sale.getTimestamp();
+    }
+
+    /**
+     * Increment patches, keyed by day, that add (sign 1) or remove (sign -1)
+     * the given sale lines from their daily rollups. Apply each with
+     * set(..., SetOptions.merge()).
+     */
+    static Map<String, Map<String, Object>> buildIncrements(List<Sales> lines, int sign) {
+        Map<String, DailyTotals> byDay = summarize(lines);
+        Map<String, Map<String, Object>> patches = new LinkedHashMap<>();
+        for (DailyTotals totals : byDay.values()) {
+            Map<String, Object> patch = new HashMap<>();
+            patch.put(FIELD_DAY_KEY, totals.dayKey);
+            patch.put(FIELD_DAY_START, totals.dayStart);
+            patch.put(FIELD_REVENUE, FieldValue.increment(sign * totals.revenue));
+            patch.put(FIELD_TRANSACTION_COUNT, FieldValue.increment(sign * totals.transactionCount));
+            patch.put(FIELD_DELIVERY_COUNT, FieldValue.increment(sign * totals.deliveryCount));
+            patch.put(FIELD_DELIVERY_REVENUE, FieldValue.increment(sign * totals.deliveryRevenue));
+            patch.put(FIELD_WALK_IN_COUNT, FieldValue.increment(sign * totals.walkInCount));
+            patch.put(FIELD_WALK_IN_REVENUE, FieldValue.increment(sign * totals.walkInRevenue));
+            Map<String, Object> quantities = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : totals.productQuantities.entrySet()) {
+                quantities.put(entry.getKey(), FieldValue.increment(sign * entry.getValue()));
+            }
+            patch.put(FIELD_PRODUCT_QUANTITIES, quantities);
+            patch.put(FIELD_LAST_UPDATED, FirestoreManager.getInstance().getServerTimestamp());
+            patches.put(totals.dayKey, patch);
+        }
+        return patches;
+    }
+
+    /**
+     * Absolute rollup documents for the given sales, used by the backfill job
+     * to overwrite whatever the increments produced.
+     */
+    static Map<String, Map<String, Object>> buildDocuments(List<Sales> sales) {
+        Map<String, Map<String, Object>> docs = new LinkedHashMap<>();
+        for (DailyTotals totals : summarize(sales).values()) {
+            Map<String, Object> doc = new HashMap<>();
+            doc.put(FIELD_DAY_KEY, totals.dayKey);
+            doc.put(FIELD_DAY_START, totals.dayStart);
+            doc.put(FIELD_REVENUE, totals.revenue);
+            doc.put(FIELD_TRANSACTION_COUNT, totals.transactionCount);
+            doc.put(FIELD_DELIVERY_COUNT, totals.deliveryCount);
+            doc.put(FIELD_DELIVERY_REVENUE, totals.deliveryRevenue);
+            doc.put(FIELD_WALK_IN_COUNT, totals.walkInCount);
+            doc.put(FIELD_WALK_IN_REVENUE, totals.walkInRevenue);
+            doc.put(FIELD_PRODUCT_QUANTITIES, new HashMap<String, Object>(totals.productQuantities));
+            doc.put(FIELD_LAST_UPDATED, FirestoreManager.getInstance().getServerTimestamp());
+            docs.put(totals.dayKey, doc);
+        }
+        return docs;
+    }
+
+    static DailySalesRollupEntity fromSnapshot(DocumentSnapshot doc) {
+        DailySalesRollupEntity e = new DailySalesRollupEntity();
+        e.dayKey = doc.getId();
+        e.dayStart = longValue(doc.get(FIELD_DAY_START));
+        e.revenue = doubleValue(doc.get(FIELD_REVENUE));
+        e.transactionCount = (int) longValue(doc.get(FIELD_TRANSACTION_COUNT));
+        e.deliveryCount = (int) longValue(doc.get(FIELD_DELIVERY_COUNT));
+        e.deliveryRevenue = doubleValue(doc.get(FIELD_DELIVERY_REVENUE));
+        e.walkInCount = (int) longValue(doc.get(FIELD_WALK_IN_COUNT));
+        e.walkInRevenue = doubleValue(doc.get(FIELD_WALK_IN_REVENUE));
+        Object quantities = doc.get(FIELD_PRODUCT_QUANTITIES);
+        if (quantities instanceof Map) {
+            JSONObject json = new JSONObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) quantities).entrySet()) {
+                try {
+                    json.put(String.valueOf(entry.getKey()), longValue(entry.getValue()));
+                } catch (JSONException ignored) {
+                }
+            }
+            e.productQuantities = json.toString();
+        }
+        Object updated = doc.get(FIELD_LAST_UPDATED);
+        e.lastUpdated = updated instanceof Timestamp ? ((Timestamp) updated).toDate().getTime() : System.currentTimeMillis();
+        return e;
+    }
+
+    static Map<String, Integer> parseProductQuantities(DailySalesRollupEntity rollup) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (rollup.productQuantities == null || rollup.productQuantities.isEmpty()) return quantities;
+        try {
+            JSONObject json = new JSONObject(rollup.productQuantities);
+            Iterator<String> keys = json.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                quantities.put(key, json.optInt(key, 0));
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Bad productQuantities for " + rollup.dayKey, e);
+        }
+        return quantities;
+    }
+
+    private static Map<String, DailyTotals> summarize(List<Sales> lines) {
+        Map<String, DailyTotals> byDay = new LinkedHashMap<>();
+        if (lines == null) return byDay;
+        for (Sales sale : lines) {
+            if (sale == null) continue;
+            long ts = saleTime(sale);
+            String key = dayKey(ts);
+            DailyTotals totals = byDay.get(key);
+            if (totals == null) {
+                totals = new DailyTotals(key, dayStart(ts));
+                byDay.put(key, totals);
+            }
+            totals.add(sale);
+        }
+        return byDay;
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static double doubleValue(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static class DailyTotals {
+        final String dayKey;
+        final long dayStart;
+        double revenue;
+        int transactionCount;
+        int deliveryCount;
+        double deliveryRevenue;
+        int walkInCount;
+        double walkInRevenue;
+        final Map<String, Integer> productQuantities = new HashMap<>();
+
+        DailyTotals(String dayKey, long dayStart) {
+            this.dayKey = dayKey;
+            this.dayStart = dayStart;
+        }
+
+        void add(Sales sale) {
+            double amount = sale.getTotalPrice();
+            revenue += amount;
+            transactionCount++;
+            if ("DELIVERY".equals(sale.getDeliveryType())) {
+                deliveryCount++;
+                deliveryRevenue += amount;
+            } else {
+                walkInCount++;
+                walkInRevenue += amount;
+            }
+            String productId = sale.getProductId();
+            if (productId != null && !productId.isEmpty()) {
+                Integer current = productQuantities.get(productId);
+                productQuantities.put(productId, (current == null ? 0 : current) + sale.getQuantity());
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.app.SalesInventory;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.ForegroundInfo;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the local sales_orders outbox. Each order is pushed in one
+ * transaction that first checks whether the order header already exists, so
+ * an order whose acknowledgement was lost is never applied (or decremented)
+ * twice.
+ */
+public class SalesSyncWorker extends Worker {
+    private static final String TAG = "SalesSyncWorker";
+    private static final int ORDERS_PER_QUERY = 100;
+    private static final int MAX_ORDERS_PER_RUN = 1000;
+    private static final long BASE_BACKOFF_MILLIS = 30_000L;
+    private static final long MAX_BACKOFF_MILLIS = 6 * 60 * 60 * 1000L;
+    private static final int SYNC_NOTIFICATION_ID = 4202;
+
+    private final SalesDao salesDao;
+    private final FirestoreManager firestoreManager;
+    private final FirebaseFirestore firestore;
+
+    public SalesSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        salesDao = AppDatabase.getInstance(context).salesDao();
+        firestoreManager = FirestoreManager.getInstance();
+        firestore = firestoreManager.getDb();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        // SyncWorker's lock: an increment landing between its outbox read and
+        // its absolute quantity write would be overwritten by that write.
+        synchronized (SyncWorker.RUN_LOCK) {
+            int pushed = 0;
+            while (pushed < MAX_ORDERS_PER_RUN) {
+                List<SalesOrderWithItems> due = salesDao.getDueOrdersSync(System.currentTimeMillis(), ORDERS_PER_QUERY);
+                if (due == null || due.isEmpty()) break;
+                for (SalesOrderWithItems order : due) {
+                    pushOrder(order);
+                    pushed++;
+                }
+            }
+            return Result.success();
+        }
+    }
+
+    @NonNull
+    @Override
+    public ForegroundInfo getForegroundInfo() {
+        return new ForegroundInfo(SYNC_NOTIFICATION_ID, NotificationHelper.buildSyncNotification(getApplicationContext()));
+    }
+
+    private void pushOrder(SalesOrderWithItems orderWithItems) {
+        SalesOrderEntity order = orderWithItems.order;
+        List<Sales> lines = toSales(orderWithItems);
+        try {
+            if (lines.isEmpty()) {
+                salesDao.markOrderSynced(order.localId);
+                return;
+            }
+            DocumentReference header = firestore.collection(firestoreManager.getUserOrdersPath()).document(order.remoteId);
+            Map<String, Object> headerMap = SalesRepository.buildOrderHeader(order.remoteId, lines);
+            Map<String, Map<String, Object>> rollups = SalesRollupRepository.buildIncrements(lines, 1);
+            Map<String, Integer> soldByProduct = new LinkedHashMap<>();
+            for (Sales line : lines) {
+                if (line.getProductId() == null || line.getProductId().isEmpty()) continue;
+                Integer sold = soldByProduct.get(line.getProductId());
+                soldByProduct.put(line.getProductId(), (sold == null ? 0 : sold) + line.getQuantity());
+            }
+            Tasks.await(firestore.runTransaction(tx -> {
+                if (tx.get(header).exists()) {
+                    return null;
+                }
+                tx.set(header, headerMap);
+                for (int i = 0; i < lines.size(); i++) {
+                    DocumentReference lineRef = firestore.collection(firestoreManager.getUserSalesPath()).document(order.remoteId + "_" + i);
+                    tx.set(lineRef, SalesRepository.buildSaleMap(lines.get(i)));
+                }
+                for (Map.Entry<String, Integer> entry : soldByProduct.entrySet()) {
+                    Map<String, Object> stock = new HashMap<>();
+                    stock.put("quantity", FieldValue.increment(-entry.getValue()));
+                    stock.put(ProductRemoteSyncer.FIELD_LAST_UPDATED, firestoreManager.getServerTimestamp());
+                    tx.set(firestore.collection(firestoreManager.getUserProductsPath()).document(entry.getKey()), stock, SetOptions.merge());
+                }
+                for (Map.Entry<String, Map<String, Object>> rollup : rollups.entrySet()) {
+                    tx.set(firestore.collection(firestoreManager.getUserSalesRollupsPath()).document(rollup.getKey()), rollup.getValue(), SetOptions.merge());
+                }
+                return null;
+            }));
+            salesDao.markOrderSynced(order.localId);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to push order " + order.remoteId, e);
+            int attempts = order.syncAttempts + 1;
+            long backoff = BASE_BACKOFF_MILLIS << Math.min(attempts - 1, 20);
+            salesDao.setOrderRetry(order.localId, attempts, System.currentTimeMillis() + Math.min(backoff, MAX_BACKOFF_MILLIS));
+        }
+    }
+
+    private List<Sales> toSales(SalesOrderWithItems orderWithItems) {
+        SalesOrderEntity order = orderWithItems.order;
+        List<Sales> lines = new ArrayList<>();
+        if (orderWithItems.items == null) return lines;
+        for (SalesOrderItemEntity item : orderWithItems.items) {
+            Sales sale = new Sales();
+            sale.setOrderId(order.remoteId);
+            sale.setProductId(item.productId);
+            sale.setProductName(item.productName);
+            sale.setQuantity(item.quantity);
+            sale.setPrice(item.unitPrice);
+            sale.setTotalPrice(item.lineTotal);
+            sale.setPaymentMethod(order.paymentMethod);
+            sale.setDate(order.orderDate);
+            sale.setTimestamp(order.orderDate);
+            sale.setDeliveryType(order.deliveryType);
+            sale.setDeliveryStatus(order.deliveryStatus);
+            sale.setDeliveryDate(order.deliveryDate);
+            sale.setDeliveryName(order.deliveryName);
+            sale.setDeliveryPhone(order.deliveryPhone);
+            sale.setDeliveryAddress(order.deliveryAddress);
+            sale.setDeliveryPaymentMethod(order.deliveryPaymentMethod);
+            lines.add(sale);
+        }
+        return lines;
+    }
+}
@@ -1,6 +1,7 @@
 package com.app.SalesInventory;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,16 +10,14 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
+import androidx.paging.PagingDataAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.signature.ObjectKey;
 
-import java.util.ArrayList;
-import java.util.List;
-
-public class SellAdapter extends RecyclerView.Adapter<SellAdapter.VH> {
+public class SellAdapter extends PagingDataAdapter<Product, SellAdapter.VH> {
 
     public interface OnProductClickListener {
         void onProductClick(Product product);
@@ -29,27 +28,18 @@ public class SellAdapter extends RecyclerView.Adapter<SellAdapter.VH> {
     }
 
     private final Context ctx;
-    private final List<Product> items = new ArrayList<>();
     private final ProductRepository productRepository;
     private final AuthManager authManager;
     private OnProductClickListener clickListener;
     private OnProductLongClickListener longClickListener;
 
-    public SellAdapter(Context ctx, List<Product> initial) {
+    public SellAdapter(Context ctx) {
+        super(new ProductDiffCallback());
         this.ctx = ctx;
-        if (initial != null) {
-            items.addAll(initial);
-        }
         productRepository = SalesInventoryApplication.getProductRepository();
         authManager = AuthManager.getInstance();
     }
 
-    public void updateProducts(List<Product> list) {
-        items.clear();
-        if (list != null) items.addAll(list);
-        notifyDataSetChanged();
-    }
-
     public void setOnProductClickListener(OnProductClickListener listener) {
         this.clickListener = listener;
     }
@@ -67,7 +57,8 @@ public class SellAdapter extends RecyclerView.Adapter<SellAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        Product p = items.get(position);
+        Product p = getItem(position);
+        if (p == null) return;
         holder.name.setText(p.getProductName());
 
         String category = p.getCategoryName() == null ? "" : p.getCategoryName();
@@ -76,20 +67,11 @@ public class SellAdapter extends RecyclerView.Adapter<SellAdapter.VH> {
         double price = p.getSellingPrice();
         holder.price.setText("₱" + String.format(java.util.Locale.US, "%.2f", price));
 
-        String imageUrl = p.getImageUrl();
-        String imagePath = p.getImagePath();
-        String toLoad = null;
-        if (imageUrl != null && !imageUrl.isEmpty()) {
-            toLoad = imageUrl;
-        } else if (imagePath != null && !imagePath.isEmpty()) {
-            toLoad = imagePath;
-        }
+        RequestBuilder<Drawable> image = ImagePreparer.load(ctx, p);
 
-        if (toLoad != null && !toLoad.isEmpty()) {
+        if (image != null) {
             Key sig = new ObjectKey((p.getProductId() != null ? p.getProductId() : "") + "_" + p.getDateAdded() + "_" + p.getExpiryDate());
-            Glide.with(ctx)
-                    .load(toLoad)
-                    .signature(sig)
+            image.signature(sig)
                     .placeholder(R.drawable.ic_image_placeholder)
                     .error(R.drawable.ic_image_placeholder)
                     .centerCrop()
@@ -128,11 +110,6 @@ public class SellAdapter extends RecyclerView.Adapter<SellAdapter.VH> {
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return items.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView name;
         TextView code;
@@ -1,38 +1,48 @@
 package com.app.SalesInventory;
 
 import androidx.appcompat.app.AlertDialog;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.LinearLayout;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
+import android.widget.SearchView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.android.material.textfield.TextInputEditText;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
 public class SellList extends BaseActivity {
+    private static final long SEARCH_DEBOUNCE_MILLIS = 200L;
+
     private RecyclerView sellListView;
     private SellAdapter sellAdapter;
-    private List<Product> allMenuProducts;
-    private List<Product> filteredProducts;
+    private ProductListFilter productFilter;
+    private ProductListViewModel productListViewModel;
+    private String appliedFilterKey;
+    private final List<String> menuCategories = new ArrayList<>();
     private ProductRepository productRepository;
     private Button btnCheckout;
     private CartManager cartManager;
     private LinearLayout layoutCategoryChips;
     private String selectedCategory = "All";
+    private SearchView searchView;
+    private String currentSearchQuery = "";
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchTask = this::applyCategoryFilter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -43,56 +53,92 @@ public class SellList extends BaseActivity {
         sellListView = findViewById(R.id.SellListD);
         btnCheckout = findViewById(R.id.btnCheckout);
         layoutCategoryChips = findViewById(R.id.layoutCategoryChips);
+        searchView = findViewById(R.id.searchViewSell);
 
-        allMenuProducts = new ArrayList<>();
-        filteredProducts = new ArrayList<>();
+        productFilter = ProductListFilter.menu();
 
-        sellAdapter = new SellAdapter(this, filteredProducts);
+        sellAdapter = new SellAdapter(this);
         sellAdapter.setOnProductClickListener(this::showProductOptionsDialog);
         sellAdapter.setOnProductLongClickListener(this::handleProductLongClick);
 
         sellListView.setLayoutManager(new GridLayoutManager(this, 3));
         sellListView.setAdapter(sellAdapter);
+        productListViewModel = new ViewModelProvider(this).get(ProductListViewModel.class);
+        productListViewModel.getProducts().observe(this, data -> sellAdapter.submitData(getLifecycle(), data));
 
-        loadProducts();
+        productRepository.getCategoryNames(true).observe(this, names -> {
+            menuCategories.clear();
+            if (names != null) menuCategories.addAll(names);
+            buildCategoryChips();
+        });
+        applyCategoryFilter();
+        setupSearch();
         setupCheckoutButton();
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-        loadProducts();
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(searchTask);
     }
 
-    private void loadProducts() {
-        productRepository.getAllProducts().observe(this, products -> {
-            allMenuProducts.clear();
-            if (products != null) {
-                for (Product p : products) {
-                    if (p == null || !p.isActive()) continue;
-                    String type = p.getProductType() == null ? "" : p.getProductType();
-                    if ("Menu".equalsIgnoreCase(type)) {
-                        allMenuProducts.add(p);
-                    }
+    private void setupSearch() {
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                currentSearchQuery = query == null ? "" : query.trim();
+                searchHandler.removeCallbacks(searchTask);
+                if (currentSearchQuery.isEmpty()) {
+                    applyCategoryFilter();
+                } else {
+                    lookupBarcode(currentSearchQuery);
                 }
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                currentSearchQuery = newText == null ? "" : newText.trim();
+                searchHandler.removeCallbacks(searchTask);
+                searchHandler.postDelayed(searchTask, SEARCH_DEBOUNCE_MILLIS);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Scanners type the code and press enter. An exact barcode hit on a menu
+     * item opens its options straight away; anything else is a text search.
+     */
+    private void lookupBarcode(String code) {
+        productRepository.findByBarcode(code, new ProductRepository.OnProductFetchedListener() {
+            @Override
+            public void onProductFetched(Product product) {
+                runOnUiThread(() -> {
+                    if (!"Menu".equalsIgnoreCase(product.getProductType()) || !product.isActive()) {
+                        applyCategoryFilter();
+                        return;
+                    }
+                    currentSearchQuery = "";
+                    searchView.setQuery("", false);
+                    searchHandler.removeCallbacks(searchTask);
+                    applyCategoryFilter();
+                    showProductOptionsDialog(product);
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                runOnUiThread(() -> applyCategoryFilter());
             }
-            buildCategoryChips();
-            applyCategoryFilter();
         });
     }
 
     private void buildCategoryChips() {
         layoutCategoryChips.removeAllViews();
-        Set<String> categories = new HashSet<>();
-        for (Product p : allMenuProducts) {
-            String c = p.getCategoryName();
-            if (c != null && !c.isEmpty()) {
-                categories.add(c);
-            }
-        }
         List<String> list = new ArrayList<>();
         list.add("All");
-        list.addAll(categories);
+        list.addAll(menuCategories);
 
         for (String cat : list) {
             TextView chip = new TextView(this);
@@ -117,18 +163,11 @@ public class SellList extends BaseActivity {
     }
 
     private void applyCategoryFilter() {
-        filteredProducts.clear();
-        for (Product p : allMenuProducts) {
-            if ("All".equalsIgnoreCase(selectedCategory)) {
-                filteredProducts.add(p);
-            } else {
-                String c = p.getCategoryName() == null ? "" : p.getCategoryName();
-                if (c.equalsIgnoreCase(selectedCategory)) {
-                    filteredProducts.add(p);
-                }
-            }
-        }
-        sellAdapter.updateProducts(new ArrayList<>(filteredProducts));
+        String key = selectedCategory + "|" + currentSearchQuery;
+        if (key.equals(appliedFilterKey)) return;
+        appliedFilterKey = key;
+        productFilter.setCategory(selectedCategory).setSearch(currentSearchQuery);
+        productListViewModel.setFilter(productFilter);
     }
 
     private void setupCheckoutButton() {
@@ -36,7 +36,7 @@ public class SettingsActivity extends BaseActivity {
     private Button resetThemeBtn, applyBtn;
     private LinearLayout colorPreviewLayout;
     private TextView primaryColorTV, secondaryColorTV, accentColorTV;
-    private Button btnBackup, btnRestore, btnUserManual;
+    private Button btnBackup, btnRestore, btnUserManual, btnResyncProducts, btnRetryFailedSync;
     private View previewPrimary, previewSecondary, previewAccent;
 
     private ThemeManager themeManager;
@@ -71,6 +71,8 @@ public class SettingsActivity extends BaseActivity {
         btnBackup = findViewById(R.id.btnBackup);
         btnRestore = findViewById(R.id.btnRestore);
         btnUserManual = findViewById(R.id.btnUserManual);
+        btnResyncProducts = findViewById(R.id.btnResyncProducts);
+        btnRetryFailedSync = findViewById(R.id.btnRetryFailedSync);
         setupThemeSpinner();
     }
 
@@ -207,6 +209,26 @@ public class SettingsActivity extends BaseActivity {
         btnRestore.setOnClickListener(v -> restoreLauncher.launch("*/*"));
 
         btnUserManual.setOnClickListener(v -> openUserManual());
+
+        btnResyncProducts.setOnClickListener(v -> {
+            btnResyncProducts.setEnabled(false);
+            Toast.makeText(this, "Resyncing products", Toast.LENGTH_SHORT).show();
+            SalesInventoryApplication.getProductRemoteSyncer().resyncAllProducts(() -> runOnUiThread(() -> {
+                btnResyncProducts.setEnabled(true);
+                Toast.makeText(this, "Product resync finished", Toast.LENGTH_SHORT).show();
+            }));
+        });
+
+        ProductRepository productRepository = SalesInventoryApplication.getProductRepository();
+        productRepository.getDeadLetterCount().observe(this, count -> {
+            int failed = count == null ? 0 : count;
+            btnRetryFailedSync.setVisibility(failed > 0 ? View.VISIBLE : View.GONE);
+            btnRetryFailedSync.setText("Retry Failed Sync (" + failed + ")");
+        });
+        btnRetryFailedSync.setOnClickListener(v -> {
+            productRepository.requeueDeadLetters();
+            Toast.makeText(this, "Failed products queued for sync", Toast.LENGTH_SHORT).show();
+        });
     }
 
     private void openUserManual() {
@@ -282,6 +304,8 @@ public class SettingsActivity extends BaseActivity {
         tintButton(btnBackup, btnPrimaryColor);
         tintButton(btnRestore, btnPrimaryColor);
         tintButton(btnUserManual, btnPrimaryColor);
+        tintButton(btnResyncProducts, btnPrimaryColor);
+        tintButton(btnRetryFailedSync, btnPrimaryColor);
     }
 
     private void applyTheme() {
@@ -0,0 +1,116 @@
+package com.app.SalesInventory;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One Firestore snapshot listener per collection path, shared by every
+ * subscriber. The listener is attached when the first subscriber arrives and
+ * removed when the last one leaves, so repeated refreshes never stack up
+ * registrations.
+ */
+public class SharedSnapshotListener {
+    private static final String TAG = "SharedSnapshotListener";
+    private static final Map<String, SharedSnapshotListener> registry = new HashMap<>();
+
+    public interface Subscriber {
+        /**
+         * @param full true when the snapshot must be treated as the complete
+         *             collection (first event after attaching, or a replay
+         *             for a late subscriber); otherwise only its document
+         *             changes are new.
+         */
+        void onSnapshot(QuerySnapshot snapshot, boolean full);
+
+        void onError(Exception error);
+    }
+
+    private final String path;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private ListenerRegistration registration;
+    private QuerySnapshot lastSnapshot;
+    private boolean awaitingFirst;
+
+    private SharedSnapshotListener(String path) {
+        this.path = path;
+    }
+
+    public static synchronized SharedSnapshotListener forCollection(String path) {
+        SharedSnapshotListener listener = registry.get(path);
+        if (listener == null) {
+            listener = new SharedSnapshotListener(path);
+            registry.put(path, listener);
+        }
+        return listener;
+    }
+
+    public synchronized void acquire(Subscriber subscriber) {
+        if (subscribers.contains(subscriber)) return;
+        subscribers.add(subscriber);
+        if (registration == null) {
+            attach();
+        } else if (lastSnapshot != null) {
+            subscriber.onSnapshot(lastSnapshot, true);
+        }
+    }
+
+    public synchronized void release(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscribers.isEmpty()) {
+            detach();
+        }
+    }
+
+    /**
+     * Drops the current registration and attaches a fresh one, so the next
+     * event is a full snapshot. Does nothing while nobody is subscribed.
+     */
+    public synchronized void restart() {
+        if (subscribers.isEmpty()) return;
+        detach();
+        attach();
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void attach() {
+        awaitingFirst = true;
+        registration = FirestoreManager.getInstance().getDb().collection(path)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Snapshot listener failed for " + path, error);
+                        for (Subscriber s : subscribers) {
+                            s.onError(error);
+                        }
+                        return;
+                    }
+                    if (snapshot == null) return;
+                    boolean full;
+                    synchronized (this) {
+                        full = awaitingFirst;
+                        awaitingFirst = false;
+                        lastSnapshot = snapshot;
+                    }
+                    for (Subscriber s : subscribers) {
+                        s.onSnapshot(snapshot, full);
+                    }
+                });
+    }
+
+    private void detach() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        lastSnapshot = null;
+    }
+}
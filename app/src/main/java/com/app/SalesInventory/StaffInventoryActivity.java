@@ -10,6 +10,7 @@ import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -82,7 +83,7 @@ public class StaffInventoryActivity extends AppCompatActivity {
                 } else {
                     emptyStateTV.setVisibility(android.view.View.GONE);
                 }
-                adapter.setItems(list);
+                adapter.submitData(getLifecycle(), PagingData.from(list));
             });
         }
 
@@ -104,7 +105,7 @@ public class StaffInventoryActivity extends AppCompatActivity {
             String name = p.getProductName() != null ? p.getProductName().toLowerCase() : "";
             if (name.contains(q)) out.add(p);
         }
-        adapter.setItems(out);
+        adapter.submitData(getLifecycle(), PagingData.from(out));
         if (out.isEmpty()) {
             emptyStateTV.setVisibility(android.view.View.VISIBLE);
         } else {
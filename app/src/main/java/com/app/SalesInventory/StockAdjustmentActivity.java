@@ -273,7 +273,8 @@ public class StockAdjustmentActivity extends BaseActivity {
 
         com.google.firebase.database.FirebaseDatabase.getInstance().getReference().updateChildren(updates)
                 .addOnSuccessListener(aVoid -> {
-                    productRepository.updateProductQuantity(selectedProduct.getProductId(), finalNewStock, new ProductRepository.OnProductUpdatedListener() {
+                    String movementType = "Add Stock".equals(adjustmentType) ? StockMovementEntity.TYPE_RECEIPT : StockMovementEntity.TYPE_ADJUSTMENT;
+                    productRepository.updateProductQuantity(selectedProduct.getProductId(), finalNewStock, movementType, adjustmentId, new ProductRepository.OnProductUpdatedListener() {
                         @Override
                         public void onProductUpdated() {
                             runOnUiThread(() -> {
@@ -67,6 +67,27 @@ public class StockAlertsActivity extends BaseActivity {
         adapter = new StockAlertAdapter(alertList, this);
         recyclerViewAlerts.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewAlerts.setAdapter(adapter);
+        recyclerViewAlerts.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && !recyclerView.canScrollVertically(1) && alertRepository.hasOlderAlerts()) {
+                    loadOlderAlerts();
+                }
+            }
+        });
+    }
+
+    private void loadOlderAlerts() {
+        alertRepository.loadOlderAlerts(new AlertRepository.OnAlertsFetchedListener() {
+            @Override
+            public void onAlertsFetched(List<Alert> alerts) {
+                // merged into getAllAlerts(), which the observer already renders
+            }
+
+            @Override
+            public void onError(String error) {
+            }
+        });
     }
 
     private void loadStockAlerts() {
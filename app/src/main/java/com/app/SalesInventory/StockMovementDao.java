@@ -0,0 +1,47 @@
+package com.app.SalesInventory;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface StockMovementDao {
+
+    @Insert
+    long insert(StockMovementEntity movement);
+
+    @Insert
+    void insertAll(List<StockMovementEntity> movements);
+
+    /**
+     * Per-product movement totals for [from, to) over every active product.
+     * The join only reaches ledger rows from {@code from} onward through the
+     * (productId, createdAt) index; rows at or after {@code to} are summed
+     * into laterDelta so the closing balance can be walked back from the
+     * current quantity. REMOTE rows (changes synced from other devices) are
+     * reported as adjustments.
+     */
+    @Query("SELECT p.productId AS productId, p.productName AS productName, p.categoryName AS categoryName, "
+            + "p.quantity AS currentQuantity, "
+            + "COALESCE(SUM(CASE WHEN m.createdAt < :to AND m.movementType = 'RECEIPT' THEN m.quantityDelta ELSE 0 END), 0) AS received, "
+            + "COALESCE(SUM(CASE WHEN m.createdAt < :to AND m.movementType = 'SALE' THEN -m.quantityDelta ELSE 0 END), 0) AS sold, "
+            + "COALESCE(SUM(CASE WHEN m.createdAt < :to AND m.movementType IN ('ADJUSTMENT', 'BATCH', 'REMOTE') THEN m.quantityDelta ELSE 0 END), 0) AS adjusted, "
+            + "COALESCE(SUM(CASE WHEN m.createdAt >= :to THEN m.quantityDelta ELSE 0 END), 0) AS laterDelta "
+            + "FROM products p LEFT JOIN stock_movements m ON m.productId = p.productId AND m.createdAt >= :from "
+            + "WHERE p.isActive = 1 AND p.productId IS NOT NULL "
+            + "GROUP BY p.localId ORDER BY p.productName COLLATE NOCASE")
+    List<MovementTotals> getMovementTotalsSync(long from, long to);
+
+    class MovementTotals {
+        public String productId;
+        public String productName;
+        public String categoryName;
+        public int currentQuantity;
+        public int received;
+        public int sold;
+        public int adjusted;
+        public int laterDelta;
+    }
+}
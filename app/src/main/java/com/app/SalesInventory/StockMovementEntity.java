@@ -0,0 +1,47 @@
+package com.app.SalesInventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Append-only stock ledger. One row per quantity change made on this device,
+ * plus a REMOTE row whenever a synced snapshot from another device moves the
+ * local quantity, each written in the same transaction as the products row it
+ * changes, so reports
+ * can be answered with range queries instead of replaying remote history.
+ */
+@Entity(tableName = "stock_movements",
+        indices = {@Index({"productId", "createdAt"}), @Index("createdAt"), @Index({"movementType", "createdAt"})})
+public class StockMovementEntity {
+    public static final String TYPE_SALE = "SALE";
+    public static final String TYPE_RECEIPT = "RECEIPT";
+    public static final String TYPE_ADJUSTMENT = "ADJUSTMENT";
+    public static final String TYPE_BATCH = "BATCH";
+    public static final String TYPE_REMOTE = "REMOTE";
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+    public String productId;
+    public String productName;
+    @NonNull
+    public String movementType = TYPE_ADJUSTMENT;
+    public int quantityDelta;
+    /** Product quantity right after this movement; null for backfilled rows. */
+    public Integer balanceAfter;
+    public String reference;
+    public long createdAt;
+
+    static StockMovementEntity of(ProductEntity product, String movementType, int quantityDelta, String reference) {
+        StockMovementEntity movement = new StockMovementEntity();
+        movement.productId = product.productId;
+        movement.productName = product.productName;
+        movement.movementType = movementType == null ? TYPE_ADJUSTMENT : movementType;
+        movement.quantityDelta = quantityDelta;
+        movement.balanceAfter = product.quantity;
+        movement.reference = reference;
+        movement.createdAt = System.currentTimeMillis();
+        return movement;
+    }
+}
@@ -14,17 +14,9 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class StockMovementReportActivity extends BaseActivity {
 
@@ -36,7 +28,7 @@ public class StockMovementReportActivity extends BaseActivity {
     private StockMovementAdapter adapter;
     private List<StockMovementReport> reportList;
 
-    private DatabaseReference productRef, salesRef, adjustmentRef;
+    private StockMovementRepository movementRepository;
     private ReportExportUtil exportUtil;
     private PDFGenerator pdfGenerator;
     private CSVGenerator csvGenerator;
@@ -83,9 +75,7 @@ public class StockMovementReportActivity extends BaseActivity {
             btnExportPDF.setEnabled(false);
         }
 
-        productRef = FirebaseDatabase.getInstance().getReference("Product");
-        salesRef = FirebaseDatabase.getInstance().getReference("Sales");
-        adjustmentRef = FirebaseDatabase.getInstance().getReference("StockAdjustments");
+        movementRepository = StockMovementRepository.getInstance(getApplication());
 
         reportList = new ArrayList<>();
         adapter = new StockMovementAdapter(reportList);
@@ -142,99 +132,28 @@ public class StockMovementReportActivity extends BaseActivity {
 
     private void loadData() {
         progressBar.setVisibility(View.VISIBLE);
-        grandTotalReceived = 0;
-        grandTotalSold = 0;
-        grandTotalAdjusted = 0;
-
-        Map<String, StockMovementReport> reportMap = new HashMap<>();
-
-        productRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                for (DataSnapshot ds : snapshot.getChildren()) {
-                    Product p = ds.getValue(Product.class);
-                    if (p != null && p.isActive()) {
-                        StockMovementReport report = new StockMovementReport(
-                                p.getProductId(),
-                                p.getProductName(),
-                                p.getCategoryName(),
-                                p.getQuantity(),
-                                0,
-                                0,
-                                0,
-                                p.getQuantity(),
-                                System.currentTimeMillis()
-                        );
-                        if (p.getProductId() != null) {
-                            reportMap.put(p.getProductId(), report);
-                        }
-                    }
-                }
-                loadSales(reportMap);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                progressBar.setVisibility(View.GONE);
-                Toast.makeText(StockMovementReportActivity.this, "Error loading products: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    private void loadSales(Map<String, StockMovementReport> reportMap) {
-        salesRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                for (DataSnapshot ds : snapshot.getChildren()) {
-                    Sales s = ds.getValue(Sales.class);
-                    if (s != null && s.getProductId() != null && reportMap.containsKey(s.getProductId())) {
-                        StockMovementReport report = reportMap.get(s.getProductId());
-                        int qty = s.getQuantity();
-                        report.addSold(qty);
-                        grandTotalSold += qty;
-                    }
-                }
-                loadAdjustments(reportMap);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-            }
-        });
-    }
-
-    private void loadAdjustments(Map<String, StockMovementReport> reportMap) {
-        adjustmentRef.addListenerForSingleValueEvent(new ValueEventListener() {
+        movementRepository.getMovementReport(0, Long.MAX_VALUE, new StockMovementRepository.OnMovementReportListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                for (DataSnapshot ds : snapshot.getChildren()) {
-                    StockAdjustment adj = ds.getValue(StockAdjustment.class);
-                    if (adj != null && adj.getProductId() != null && reportMap.containsKey(adj.getProductId())) {
-                        StockMovementReport report = reportMap.get(adj.getProductId());
-                        if ("Add Stock".equals(adj.getAdjustmentType())) {
-                            report.addReceived(adj.getQuantityAdjusted());
-                            grandTotalReceived += adj.getQuantityAdjusted();
-                        } else {
-                            report.addAdjusted(adj.getQuantityAdjusted());
-                            grandTotalAdjusted += adj.getQuantityAdjusted();
-                        }
-                    }
-                }
-                finalizeReport(reportMap);
+            public void onReportLoaded(StockMovementRepository.MovementReport report) {
+                runOnUiThread(() -> finalizeReport(report));
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(String error) {
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(StockMovementReportActivity.this, "Error loading stock movements: " + error, Toast.LENGTH_SHORT).show();
+                });
             }
         });
     }
 
-    private void finalizeReport(Map<String, StockMovementReport> reportMap) {
+    private void finalizeReport(StockMovementRepository.MovementReport report) {
         reportList.clear();
-        for (StockMovementReport report : reportMap.values()) {
-            report.calculateOpening();
-            reportList.add(report);
-        }
+        reportList.addAll(report.rows);
+        grandTotalReceived = report.totalReceived;
+        grandTotalSold = report.totalSold;
+        grandTotalAdjusted = report.totalAdjusted;
 
         progressBar.setVisibility(View.GONE);
         adapter.notifyDataSetChanged();
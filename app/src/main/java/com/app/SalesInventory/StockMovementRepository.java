@@ -0,0 +1,81 @@
+package com.app.SalesInventory;
+
+import android.app.Application;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read side of the local stock ledger. Movement, receiving and adjustment
+ * figures come from one grouped range query over stock_movements joined to
+ * products, so a report no longer downloads and joins remote history.
+ */
+public class StockMovementRepository {
+    private static final String TAG = "StockMovementRepository";
+    private static StockMovementRepository instance;
+    private final StockMovementDao movementDao;
+    private final AppExecutors executors = AppExecutors.getInstance();
+
+    private StockMovementRepository(Application application) {
+        movementDao = AppDatabase.getInstance(application).stockMovementDao();
+    }
+
+    public static synchronized StockMovementRepository getInstance(Application application) {
+        if (instance == null) {
+            instance = new StockMovementRepository(application);
+        }
+        return instance;
+    }
+
+    /**
+     * Builds per-product movement rows for [from, to) on the dbRead lane.
+     * The closing stock of each row is the product's quantity at {@code to},
+     * and the opening stock is walked back from it. The listener is called
+     * on the background thread.
+     */
+    public void getMovementReport(long from, long to, OnMovementReportListener listener) {
+        executors.dbRead().execute(AppExecutors.Priority.NORMAL, () -> {
+            try {
+                List<StockMovementDao.MovementTotals> totals = movementDao.getMovementTotalsSync(from, to);
+                long reportDate = Math.min(to, System.currentTimeMillis());
+                MovementReport report = new MovementReport();
+                for (StockMovementDao.MovementTotals t : totals) {
+                    int closing = Math.max(0, t.currentQuantity - t.laterDelta);
+                    StockMovementReport row = new StockMovementReport(
+                            t.productId,
+                            t.productName,
+                            t.categoryName,
+                            closing,
+                            t.received,
+                            t.sold,
+                            t.adjusted,
+                            closing,
+                            reportDate
+                    );
+                    row.calculateOpening();
+                    report.rows.add(row);
+                    report.totalReceived += t.received;
+                    report.totalSold += t.sold;
+                    report.totalAdjusted += t.adjusted;
+                }
+                listener.onReportLoaded(report);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to build movement report", e);
+                listener.onError(e.getMessage() == null ? "Failed to build movement report" : e.getMessage());
+            }
+        });
+    }
+
+    public static class MovementReport {
+        public final List<StockMovementReport> rows = new ArrayList<>();
+        public int totalReceived;
+        public int totalSold;
+        public int totalAdjusted;
+    }
+
+    public interface OnMovementReportListener {
+        void onReportLoaded(MovementReport report);
+        void onError(String error);
+    }
+}
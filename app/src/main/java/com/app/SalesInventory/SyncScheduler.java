@@ -1,26 +1,91 @@
 package com.app.SalesInventory;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
 import androidx.work.NetworkType;
 import androidx.work.OneTimeWorkRequest;
+import androidx.work.OutOfQuotaPolicy;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 import java.util.concurrent.TimeUnit;
 
 public class SyncScheduler {
     private static final long PERIODIC_INTERVAL_MINUTES = 15;
+    private static final long COALESCE_WINDOW_MILLIS = 3000;
+    private static final String IMAGE_UPLOAD_WORK = "product_image_upload";
+    private static final String PRODUCT_SYNC_WORK = "product_sync";
+    private static final String PRODUCT_PERIODIC_SYNC_WORK = "product_periodic_sync";
+    private static final String SALES_SYNC_WORK = "sales_sync";
+    private static final String SALES_ROLLUP_BACKFILL_WORK = "sales_rollup_backfill";
+    private static final String ALERT_RETENTION_WORK = "alert_retention";
+    private static final String ALERT_TIMESTAMP_MIGRATION_WORK = "alert_timestamp_migration";
+    private static final long ALERT_RETENTION_INTERVAL_HOURS = 24;
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    private static final Object lock = new Object();
+    private static boolean flushScheduled = false;
+    private static boolean syncRunning = false;
+    private static boolean followUpQueued = false;
 
     public static void enqueueImmediateSync(Context context) {
+        Context app = context.getApplicationContext();
+        synchronized (lock) {
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        handler.postDelayed(() -> {
+            synchronized (lock) {
+                flushScheduled = false;
+            }
+            enqueueSync(app, false);
+        }, COALESCE_WINDOW_MILLIS);
+    }
+
+    public static void enqueueExpeditedSync(Context context) {
+        enqueueSync(context.getApplicationContext(), true);
+    }
+
+    private static void enqueueSync(Context context, boolean expedited) {
+        ExistingWorkPolicy policy;
+        synchronized (lock) {
+            if (syncRunning) {
+                if (followUpQueued) return;
+                followUpQueued = true;
+                policy = ExistingWorkPolicy.APPEND_OR_REPLACE;
+            } else {
+                policy = ExistingWorkPolicy.KEEP;
+            }
+        }
+
         Constraints constraints = new Constraints.Builder()
                 .setRequiredNetworkType(NetworkType.CONNECTED)
                 .build();
 
-        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SyncWorker.class)
-                .setConstraints(constraints)
-                .build();
+        OneTimeWorkRequest.Builder builder = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(constraints);
+        if (expedited) {
+            builder.setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST);
+        }
 
-        WorkManager.getInstance(context.getApplicationContext()).enqueue(request);
+        WorkManager.getInstance(context).enqueueUniqueWork(PRODUCT_SYNC_WORK, policy, builder.build());
+    }
+
+    static void onSyncStarted() {
+        synchronized (lock) {
+            syncRunning = true;
+            followUpQueued = false;
+        }
+    }
+
+    static void onSyncFinished() {
+        synchronized (lock) {
+            syncRunning = false;
+        }
     }
 
     public static void schedulePeriodicSync(Context context) {
@@ -32,6 +97,102 @@ public class SyncScheduler {
                 .setConstraints(constraints)
                 .build();
 
-        WorkManager.getInstance(context.getApplicationContext()).enqueue(periodic);
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(PRODUCT_PERIODIC_SYNC_WORK, ExistingPeriodicWorkPolicy.KEEP, periodic);
+    }
+
+    public static void enqueueSalesSync(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SalesSyncWorker.class)
+                .setConstraints(constraints)
+                .setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(SALES_SYNC_WORK, ExistingWorkPolicy.KEEP, request);
+    }
+
+    public static void enqueueRollupBackfill(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SalesRollupBackfillWorker.class)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(SALES_ROLLUP_BACKFILL_WORK, ExistingWorkPolicy.KEEP, request);
+    }
+
+    public static void scheduleAlertRetention(Context context) {
+        scheduleAlertRetention(context, AlertRetentionWorker.DEFAULT_MAX_AGE_DAYS);
+    }
+
+    public static void scheduleAlertRetention(Context context, int maxAgeDays) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        Data input = new Data.Builder()
+                .putInt(AlertRetentionWorker.KEY_MAX_AGE_DAYS, maxAgeDays)
+                .build();
+
+        PeriodicWorkRequest periodic = new PeriodicWorkRequest.Builder(AlertRetentionWorker.class, ALERT_RETENTION_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .setInputData(input)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(ALERT_RETENTION_WORK, ExistingPeriodicWorkPolicy.UPDATE, periodic);
+    }
+
+    /**
+     * One-off conversion of legacy Timestamp-typed alert timestamps, so the
+     * newest-first alert listener sees a single ordering from the start
+     * rather than waiting for the first retention run. Skipped once a run
+     * has completed for the signed-in owner.
+     */
+    public static void enqueueAlertTimestampMigration(Context context) {
+        String alertsPath = FirestoreManager.getInstance().getUserAlertsPath();
+        if (AlertRetentionWorker.isTimestampMigrationDone(context, alertsPath)) return;
+
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        Data input = new Data.Builder()
+                .putBoolean(AlertRetentionWorker.KEY_NORMALIZE_ONLY, true)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(AlertRetentionWorker.class)
+                .setConstraints(constraints)
+                .setInputData(input)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(ALERT_TIMESTAMP_MIGRATION_WORK, ExistingWorkPolicy.KEEP, request);
+    }
+
+    public static void enqueueImageUpload(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        Data input = new Data.Builder()
+                .putInt(ImageUploadWorker.KEY_PARALLELISM, ImageUploadWorker.DEFAULT_PARALLELISM)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ImageUploadWorker.class)
+                .setConstraints(constraints)
+                .setInputData(input)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(IMAGE_UPLOAD_WORK, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
     }
-}
\ No newline at end of file
+}
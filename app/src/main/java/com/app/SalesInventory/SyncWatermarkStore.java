@@ -0,0 +1,51 @@
+package com.app.SalesInventory;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.firebase.Timestamp;
+
+public class SyncWatermarkStore {
+    private static final String PREFS_NAME = "sync_watermarks";
+    private static final String SUFFIX_SECONDS = ":seconds";
+    private static final String SUFFIX_NANOS = ":nanos";
+
+    private static SyncWatermarkStore instance;
+    private final SharedPreferences prefs;
+
+    private SyncWatermarkStore(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized SyncWatermarkStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SyncWatermarkStore(context);
+        }
+        return instance;
+    }
+
+    public synchronized Timestamp get(String collectionPath) {
+        if (collectionPath == null || !prefs.contains(collectionPath + SUFFIX_SECONDS)) return null;
+        long seconds = prefs.getLong(collectionPath + SUFFIX_SECONDS, 0L);
+        int nanos = prefs.getInt(collectionPath + SUFFIX_NANOS, 0);
+        return new Timestamp(seconds, nanos);
+    }
+
+    public synchronized void advance(String collectionPath, Timestamp candidate) {
+        if (collectionPath == null || candidate == null) return;
+        Timestamp current = get(collectionPath);
+        if (current != null && current.compareTo(candidate) >= 0) return;
+        prefs.edit()
+                .putLong(collectionPath + SUFFIX_SECONDS, candidate.getSeconds())
+                .putInt(collectionPath + SUFFIX_NANOS, candidate.getNanoseconds())
+                .apply();
+    }
+
+    public synchronized void clear(String collectionPath) {
+        if (collectionPath == null) return;
+        prefs.edit()
+                .remove(collectionPath + SUFFIX_SECONDS)
+                .remove(collectionPath + SUFFIX_NANOS)
+                .apply();
+    }
+}
@@ -1,31 +1,43 @@
 package com.app.SalesInventory;
 
 import android.content.Context;
-import android.net.Uri;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.work.ForegroundInfo;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
-import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 public class SyncWorker extends Worker {
     private static final String TAG = "SyncWorker";
+    private static final int MAX_BATCH_WRITES = 450;
+    private static final int MAX_ROWS_PER_RUN = 2000;
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final int MAX_SYNC_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 30_000L;
+    private static final long MAX_BACKOFF_MILLIS = 6 * 60 * 60 * 1000L;
+    private static final int SYNC_NOTIFICATION_ID = 4201;
+    /** Also held by SalesSyncWorker, so stock increments never interleave with a sync run. */
+    static final Object RUN_LOCK = new Object();
     private final AppDatabase db;
     private final ProductDao productDao;
     private final FirestoreManager firestoreManager;
     private final FirebaseFirestore firestore;
-    private final FirebaseStorage storage;
 
     public SyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
@@ -33,23 +45,70 @@ public class SyncWorker extends Worker {
         productDao = db.productDao();
         firestoreManager = FirestoreManager.getInstance();
         firestore = firestoreManager.getDb();
-        storage = FirebaseStorage.getInstance();
     }
 
     @NonNull
     @Override
     public Result doWork() {
+        synchronized (RUN_LOCK) {
+            SyncScheduler.onSyncStarted();
+            try {
+                return syncPending();
+            } finally {
+                SyncScheduler.onSyncFinished();
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public ForegroundInfo getForegroundInfo() {
+        return new ForegroundInfo(SYNC_NOTIFICATION_ID, NotificationHelper.buildSyncNotification(getApplicationContext()));
+    }
+
+    private Result syncPending() {
         try {
-            List<ProductEntity> pending = productDao.getPendingProductsSync();
+            if (db.salesDao().countUnsyncedOrders() > 0) {
+                SyncScheduler.enqueueSalesSync(getApplicationContext());
+            }
+            // Rows and outbox are read together so a checkout cannot land
+            // between the two and be counted in one but not the other.
+            Map<String, Integer> unsyncedSold = new HashMap<>();
+            List<ProductEntity> pending = db.runInTransaction(() -> {
+                List<ProductEntity> due = productDao.getDueProductsSync(System.currentTimeMillis(), MAX_ROWS_PER_RUN);
+                if (due != null) unsyncedSold.putAll(getUnsyncedSold(due));
+                return due;
+            });
             if (pending == null || pending.isEmpty()) {
                 return Result.success();
             }
+            List<ProductEntity> toWrite = new ArrayList<>();
+            List<ProductEntity> newIds = new ArrayList<>();
+            List<Long> localOnlyDeletes = new ArrayList<>();
+            CollectionReference products = firestore.collection(firestoreManager.getUserProductsPath());
             for (ProductEntity pe : pending) {
+                boolean hasRemoteId = pe.productId != null && !pe.productId.isEmpty();
                 if ("DELETE_PENDING".equals(pe.syncState)) {
-                    handleDelete(pe);
-                } else {
-                    handleUpsert(pe);
+                    if (hasRemoteId) {
+                        toWrite.add(pe);
+                    } else {
+                        localOnlyDeletes.add(pe.localId);
+                    }
+                    continue;
+                }
+                if (!hasRemoteId) {
+                    pe.productId = products.document().getId();
+                    newIds.add(pe);
                 }
+                toWrite.add(pe);
+            }
+            productDao.markSynced(null, localOnlyDeletes);
+            productDao.assignProductIds(newIds);
+            for (int i = 0; i < toWrite.size(); i += MAX_BATCH_WRITES) {
+                commitChunk(products, toWrite.subList(i, Math.min(toWrite.size(), i + MAX_BATCH_WRITES)), unsyncedSold);
+            }
+            if (productDao.countPendingImageUploads(ImageUploadWorker.MAX_ATTEMPTS) > 0) {
+                SyncScheduler.enqueueImageUpload(getApplicationContext());
             }
             return Result.success();
         } catch (Exception e) {
@@ -58,103 +117,130 @@ public class SyncWorker extends Worker {
         }
     }
 
-    private void handleDelete(ProductEntity pe) {
-        if (pe.productId != null && !pe.productId.isEmpty()) {
-            Task<Void> deleteTask = firestore
-                    .collection(firestoreManager.getUserProductsPath())
-                    .document(pe.productId)
-                    .delete();
-            try {
-                Tasks.await(deleteTask);
-                productDao.deleteByLocalId(pe.localId);
-            } catch (ExecutionException | InterruptedException e) {
-                productDao.setSyncInfo(pe.localId, pe.productId, "ERROR");
+    /**
+     * Sold quantities of orders still in the outbox, for rows that will send
+     * an absolute quantity. Local stock already has them subtracted and
+     * SalesSyncWorker will subtract them again on the server, so they are
+     * added back before the absolute value goes out. This only holds while
+     * SalesSyncWorker is kept out by RUN_LOCK until the write commits.
+     */
+    private Map<String, Integer> getUnsyncedSold(List<ProductEntity> rows) {
+        List<String> ids = new ArrayList<>();
+        for (ProductEntity pe : rows) {
+            if ("DELETE_PENDING".equals(pe.syncState) || pe.productId == null || pe.productId.isEmpty()) continue;
+            if (pe.needsFullSync() || pe.getDirtyFieldSet().contains("quantity")) ids.add(pe.productId);
+        }
+        Map<String, Integer> sold = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += LOOKUP_CHUNK_SIZE) {
+            List<SalesDao.ProductQuantity> quantities = db.salesDao().getUnsyncedSoldQuantities(ids.subList(i, Math.min(ids.size(), i + LOOKUP_CHUNK_SIZE)));
+            if (quantities == null) continue;
+            for (SalesDao.ProductQuantity q : quantities) {
+                sold.put(q.productId, q.quantity);
             }
-        } else {
-            productDao.deleteByLocalId(pe.localId);
         }
+        return sold;
     }
 
-    private void handleUpsert(ProductEntity pe) {
-        try {
-            if (pe.imagePath != null && !pe.imagePath.isEmpty() && (pe.imageUrl == null || pe.imageUrl.isEmpty())) {
-                String url = uploadImage(pe);
-                if (url != null) {
-                    pe.imageUrl = url;
+    /**
+     * Commits one batch. A transient failure (offline, quota, timeout) is
+     * rethrown so the whole run retries without charging any row. Any other
+     * failure is pinned on the rows that cause it: the chunk is split in half
+     * and retried until the failing rows stand alone, and only they are
+     * charged an attempt.
+     */
+    private void commitChunk(CollectionReference products, List<ProductEntity> chunk, Map<String, Integer> unsyncedSold) throws ExecutionException, InterruptedException {
+        WriteBatch batch = firestore.batch();
+        List<ProductEntity> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (ProductEntity pe : chunk) {
+            if ("DELETE_PENDING".equals(pe.syncState)) {
+                batch.set(products.document(pe.productId), buildTombstone(), SetOptions.merge());
+                deleted.add(pe.localId);
+            } else {
+                Map<String, Object> doc = pe.needsFullSync() ? buildDocument(pe) : buildPartialDocument(pe);
+                Integer sold = unsyncedSold.get(pe.productId);
+                if (sold != null && sold != 0 && doc.get("quantity") instanceof Integer) {
+                    doc.put("quantity", (Integer) doc.get("quantity") + sold);
                 }
+                batch.set(products.document(pe.productId), doc, SetOptions.merge());
+                upserted.add(pe);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Image upload failed for localId=" + pe.localId, e);
         }
-
-        Map<String, Object> doc = new HashMap<>();
-        doc.put("productName", pe.productName);
-        doc.put("categoryId", pe.categoryId);
-        doc.put("categoryName", pe.categoryName);
-        doc.put("description", pe.description);
-        doc.put("costPrice", pe.costPrice);
-        doc.put("sellingPrice", pe.sellingPrice);
-        doc.put("quantity", pe.quantity);
-        doc.put("reorderLevel", pe.reorderLevel);
-        doc.put("criticalLevel", pe.criticalLevel);
-        doc.put("ceilingLevel", pe.ceilingLevel);
-        doc.put("floorLevel", pe.floorLevel);
-        doc.put("unit", pe.unit);
-        doc.put("barcode", pe.barcode);
-        doc.put("supplier", pe.supplier);
-        doc.put("dateAdded", pe.dateAdded);
-        doc.put("addedBy", pe.addedBy);
-        doc.put("isActive", pe.isActive);
-        doc.put("productType", pe.productType);
-        doc.put("expiryDate", pe.expiryDate);
-        doc.put("lastUpdated", firestoreManager.getServerTimestamp());
-        if (pe.imageUrl != null && !pe.imageUrl.isEmpty()) {
-            doc.put("imageUrl", pe.imageUrl);
+        try {
+            Tasks.await(batch.commit());
+            productDao.markSynced(upserted, deleted);
+        } catch (ExecutionException e) {
+            if (isTransient(e)) throw e;
+            if (chunk.size() > 1) {
+                int mid = chunk.size() / 2;
+                commitChunk(products, chunk.subList(0, mid), unsyncedSold);
+                commitChunk(products, chunk.subList(mid, chunk.size()), unsyncedSold);
+                return;
+            }
+            ProductEntity pe = chunk.get(0);
+            Log.e(TAG, "Sync failed for localId=" + pe.localId, e);
+            scheduleRetry(pe, System.currentTimeMillis());
+            productDao.markSyncFailed(chunk);
         }
+    }
 
-        if (pe.productId != null && !pe.productId.isEmpty()) {
-            Task<Void> t = firestore
-                    .collection(firestoreManager.getUserProductsPath())
-                    .document(pe.productId)
-                    .set(doc);
-            try {
-                Tasks.await(t);
-                productDao.setSyncInfo(pe.localId, pe.productId, "SYNCED");
-            } catch (ExecutionException | InterruptedException e) {
-                productDao.setSyncInfo(pe.localId, pe.productId, "ERROR");
-            }
-        } else {
-            Task<com.google.firebase.firestore.DocumentReference> t = firestore
-                    .collection(firestoreManager.getUserProductsPath())
-                    .add(doc);
-            try {
-                com.google.firebase.firestore.DocumentReference dr = Tasks.await(t);
-                String newId = dr.getId();
-                productDao.setSyncInfo(pe.localId, newId, "SYNCED");
-            } catch (ExecutionException | InterruptedException e) {
-                productDao.setSyncInfo(pe.localId, null, "ERROR");
-            }
+    private static boolean isTransient(ExecutionException e) {
+        if (!(e.getCause() instanceof FirebaseFirestoreException)) return true;
+        switch (((FirebaseFirestoreException) e.getCause()).getCode()) {
+            case UNAVAILABLE:
+            case DEADLINE_EXCEEDED:
+            case RESOURCE_EXHAUSTED:
+            case ABORTED:
+            case CANCELLED:
+            case UNAUTHENTICATED:
+                return true;
+            default:
+                return false;
         }
     }
 
-    private String uploadImage(ProductEntity pe) throws ExecutionException, InterruptedException {
-        if (pe.imagePath == null || pe.imagePath.isEmpty()) {
-            return null;
+    private void scheduleRetry(ProductEntity pe, long now) {
+        pe.syncAttempts++;
+        if (pe.syncAttempts >= MAX_SYNC_ATTEMPTS) {
+            Log.w(TAG, "Moving localId=" + pe.localId + " to dead letter after " + pe.syncAttempts + " attempts");
+            pe.syncState = "DEAD_LETTER";
+            pe.nextSyncAt = 0;
+            return;
         }
-        Uri uri = Uri.parse(pe.imagePath);
+        if (!"DELETE_PENDING".equals(pe.syncState)) {
+            pe.syncState = "ERROR";
+        }
+        long backoff = BASE_BACKOFF_MILLIS << Math.min(pe.syncAttempts - 1, 20);
+        pe.nextSyncAt = now + Math.min(backoff, MAX_BACKOFF_MILLIS);
+    }
+
+    private Map<String, Object> buildTombstone() {
+        Map<String, Object> tombstone = new HashMap<>();
+        tombstone.put(ProductRemoteSyncer.FIELD_DELETED, true);
+        tombstone.put("isActive", false);
+        tombstone.put(ProductRemoteSyncer.FIELD_LAST_UPDATED, firestoreManager.getServerTimestamp());
+        return tombstone;
+    }
 
-        String id = pe.productId;
-        if (id == null || id.isEmpty()) {
-            id = "local_" + pe.localId;
+    private Map<String, Object> buildDocument(ProductEntity pe) {
+        Map<String, Object> doc = pe.toRemoteFields();
+        doc.put(ProductRemoteSyncer.FIELD_DELETED, false);
+        doc.put(ProductRemoteSyncer.FIELD_LAST_UPDATED, firestoreManager.getServerTimestamp());
+        return doc;
+    }
+
+    private Map<String, Object> buildPartialDocument(ProductEntity pe) {
+        Map<String, Object> full = pe.toRemoteFields();
+        Set<String> dirty = pe.getDirtyFieldSet();
+        Map<String, Object> doc = new HashMap<>();
+        for (String field : dirty) {
+            if (full.containsKey(field)) doc.put(field, full.get(field));
+        }
+        if (!dirty.contains("quantity") && pe.pendingQuantityDelta != 0) {
+            doc.put("quantity", FieldValue.increment(pe.pendingQuantityDelta));
         }
-        StorageReference ref = storage
-                .getReference()
-                .child("product_images/" + id + ".jpg");
-        Task<?> uploadTask = ref.putFile(uri);
-        Tasks.await(uploadTask);
-        Task<Uri> urlTask = ref.getDownloadUrl();
-        Uri download = Tasks.await(urlTask);
-        if (download == null) return null;
-        return download.toString();
+        doc.put(ProductRemoteSyncer.FIELD_DELETED, false);
+        doc.put(ProductRemoteSyncer.FIELD_LAST_UPDATED, firestoreManager.getServerTimestamp());
+        return doc;
     }
-}
\ No newline at end of file
+}
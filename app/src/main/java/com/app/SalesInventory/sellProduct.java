@@ -683,7 +683,8 @@ public class sellProduct extends BaseActivity {
         );
     }
 
-    private void saveSale(String paymentMethod,
+    private void saveSale(String orderId,
+                          String paymentMethod,
                           boolean isDelivery,
                           String dName,
                           String dPhone,
@@ -695,12 +696,12 @@ public class sellProduct extends BaseActivity {
 
         double subtotal = cartManager.getSubtotal();
         long now = System.currentTimeMillis();
-        String orderId = java.util.UUID.randomUUID().toString();
 
         String deliveryType = isDelivery ? "DELIVERY" : "WALK_IN";
         String deliveryStatus = isDelivery ? "PENDING" : "DELIVERED";
         long deliveryDate = isDelivery ? 0 : now;
 
+        List<Sales> lines = new ArrayList<>();
         for (CartManager.CartItem item : items) {
             double lineTotal = item.getLineTotal();
             double ratio = subtotal == 0 ? 0 : lineTotal / subtotal;
@@ -723,28 +724,31 @@ public class sellProduct extends BaseActivity {
             sale.setDeliveryPhone(isDelivery ? dPhone : "");
             sale.setDeliveryAddress(isDelivery ? dAddr : "");
             sale.setDeliveryPaymentMethod(isDelivery ? dPay : "");
-
-            salesRepository.addSale(sale, new SalesRepository.OnSaleAddedListener() {
-                @Override public void onSaleAdded(String saleId) {}
-                @Override public void onError(String error) {
-                    runOnUiThread(() -> Toast.makeText(sellProduct.this, "Failed to record: " + error, Toast.LENGTH_SHORT).show());
-                }
-            });
-
-            productRepository.updateProductQuantity(item.productId, Math.max(0, item.stock - item.quantity), new ProductRepository.OnProductUpdatedListener() {
-                @Override public void onProductUpdated() {}
-                @Override public void onError(String error) {
-                    runOnUiThread(() -> Toast.makeText(sellProduct.this, "Stock error: " + error, Toast.LENGTH_SHORT).show());
-                }
-            });
+            lines.add(sale);
         }
 
-        cartManager.clear();
-        Toast.makeText(this, "Sale Recorded Successfully", Toast.LENGTH_SHORT).show();
-        Intent intent = new Intent(sellProduct.this, MainActivity.class);
-        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
-        startActivity(intent);
-        finish();
+        btnConfirmSale.setEnabled(false);
+        salesRepository.checkout(orderId, lines, new SalesRepository.OnCheckoutListener() {
+            @Override
+            public void onCheckoutCommitted(String committedOrderId) {
+                runOnUiThread(() -> {
+                    cartManager.clear();
+                    Toast.makeText(sellProduct.this, "Sale Recorded Successfully", Toast.LENGTH_SHORT).show();
+                    Intent intent = new Intent(sellProduct.this, MainActivity.class);
+                    intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+                    startActivity(intent);
+                    finish();
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                runOnUiThread(() -> {
+                    btnConfirmSale.setEnabled(true);
+                    Toast.makeText(sellProduct.this, "Failed to record: " + error, Toast.LENGTH_SHORT).show();
+                });
+            }
+        });
     }
     private void clearInputs() {
         etDiscount.setText("0");
@@ -824,7 +828,7 @@ public class sellProduct extends BaseActivity {
 
         btnFinalize.setOnClickListener(v -> {
             receiptDialog.dismiss();
-            saveSale(paymentMethod, isDelivery, dName, dPhone, dAddr, dPay);
+            saveSale(orderId, paymentMethod, isDelivery, dName, dPhone, dAddr, dPay);
         });
 
         receiptDialog.show();
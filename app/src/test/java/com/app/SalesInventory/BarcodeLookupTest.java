@@ -0,0 +1,27 @@
+package com.app.SalesInventory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BarcodeLookupTest {
+
+    @Test
+    public void normalizeBarcode_trimsScannerWhitespace() {
+        assertEquals("4800016644290", ProductRepository.normalizeBarcode(" 4800016644290\n"));
+        assertEquals("ABC-123", ProductRepository.normalizeBarcode("ABC-123\t"));
+    }
+
+    @Test
+    public void normalizeBarcode_keepsLeadingZeros() {
+        assertEquals("0012345", ProductRepository.normalizeBarcode("0012345"));
+    }
+
+    @Test
+    public void normalizeBarcode_blankMatchesNothing() {
+        assertNull(ProductRepository.normalizeBarcode(null));
+        assertNull(ProductRepository.normalizeBarcode(""));
+        assertNull(ProductRepository.normalizeBarcode(" \r\n"));
+    }
+}
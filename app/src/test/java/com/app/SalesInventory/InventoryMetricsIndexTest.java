@@ -0,0 +1,111 @@
+package com.app.SalesInventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryMetricsIndexTest {
+    private static final double DELTA = 1e-9;
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long DAY = InventoryMetrics.DAY_MILLIS;
+
+    private static Product product(long localId, String name, int quantity, int reorderLevel, double cost) {
+        Product p = new Product();
+        p.setLocalId(localId);
+        p.setProductName(name);
+        p.setQuantity(quantity);
+        p.setReorderLevel(reorderLevel);
+        p.setCostPrice(cost);
+        p.setActive(true);
+        return p;
+    }
+
+    private static List<String> names(List<Product> products) {
+        List<String> out = new ArrayList<>();
+        for (Product p : products) {
+            out.add(p.getProductName());
+        }
+        return out;
+    }
+
+    @Test
+    public void update_countsStatusAndValue() {
+        Product menu = product(5, "Latte", 0, 5, 99);
+        menu.setProductType("Menu");
+        InventoryMetricsIndex index = new InventoryMetricsIndex();
+        index.update(Arrays.asList(
+                product(1, "Out", 0, 5, 10),
+                product(2, "Critical", 3, 5, 10),
+                product(3, "Low", 8, 5, 10),
+                product(4, "Plenty", 50, 5, 2),
+                menu));
+
+        InventoryMetrics metrics = index.snapshot();
+        assertArrayEquals(new int[]{1, 1, 1, 1}, metrics.getStatusBreakdown());
+        assertEquals(3, metrics.getLowOrCriticalCount());
+        assertEquals(3 * 10 + 8 * 10 + 50 * 2, metrics.getTotalCostValue(), DELTA);
+        assertEquals(Arrays.asList("Out", "Critical", "Low"), names(metrics.getLowStockProducts()));
+    }
+
+    @Test
+    public void update_reappliesOnlyChangedRows() {
+        InventoryMetricsIndex index = new InventoryMetricsIndex();
+        index.update(Arrays.asList(
+                product(1, "A", 3, 5, 1),
+                product(2, "B", 8, 5, 1),
+                product(3, "C", 50, 5, 1)));
+
+        index.update(Arrays.asList(
+                product(1, "A", 9, 5, 1),
+                product(2, "B renamed", 8, 5, 1),
+                product(3, "C", 50, 5, 1)));
+
+        InventoryMetrics metrics = index.snapshot();
+        assertArrayEquals(new int[]{1, 2, 0, 0}, metrics.getStatusBreakdown());
+        assertEquals(9 + 8 + 50, metrics.getTotalCostValue(), DELTA);
+        assertEquals(Arrays.asList("B renamed", "A"), names(metrics.getLowStockProducts()));
+    }
+
+    @Test
+    public void update_removesRowsMissingFromEmission() {
+        InventoryMetricsIndex index = new InventoryMetricsIndex();
+        index.update(Arrays.asList(
+                product(1, "A", 3, 5, 1),
+                product(2, "B", 50, 5, 1)));
+
+        index.update(Arrays.asList(product(2, "B", 50, 5, 1)));
+
+        InventoryMetrics metrics = index.snapshot();
+        assertArrayEquals(new int[]{1, 0, 0, 0}, metrics.getStatusBreakdown());
+        assertEquals(50, metrics.getTotalCostValue(), DELTA);
+        assertTrue(metrics.getLowStockProducts().isEmpty());
+
+        index.update(null);
+        assertArrayEquals(new int[]{0, 0, 0, 0}, index.snapshot().getStatusBreakdown());
+    }
+
+    @Test
+    public void snapshot_ordersExpiringActiveProducts() {
+        Product later = product(1, "Later", 10, 1, 1);
+        later.setExpiryDate(NOW + 5 * DAY);
+        Product expired = product(2, "Expired", 10, 1, 1);
+        expired.setExpiryDate(NOW - DAY);
+        Product farOff = product(3, "Far off", 10, 1, 1);
+        farOff.setExpiryDate(NOW + 60 * DAY);
+        Product archived = product(4, "Archived", 10, 1, 1);
+        archived.setExpiryDate(NOW);
+        archived.setActive(false);
+        InventoryMetricsIndex index = new InventoryMetricsIndex();
+        index.update(Arrays.asList(later, expired, farOff, archived));
+
+        InventoryMetrics metrics = index.snapshot();
+        assertEquals(Arrays.asList("Expired", "Later"), names(metrics.getNearExpiryProducts(NOW)));
+        assertEquals(2, metrics.getNearExpiryCount(NOW));
+    }
+}
@@ -0,0 +1,99 @@
+package com.app.SalesInventory;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProductEntityDirtyTrackingTest {
+
+    private static ProductEntity entity() {
+        ProductEntity e = new ProductEntity();
+        e.productId = "p1";
+        e.productName = "Coffee";
+        e.sellingPrice = 50;
+        e.quantity = 10;
+        e.isActive = true;
+        return e;
+    }
+
+    @Test
+    public void newRow_needsFullSync() {
+        assertTrue(entity().needsFullSync());
+    }
+
+    @Test
+    public void markDirtySince_recordsOnlyChangedFields() {
+        ProductEntity e = entity();
+        Map<String, Object> before = e.toRemoteFields();
+        e.sellingPrice = 55;
+        e.markDirtySince(before);
+
+        assertEquals("sellingPrice", e.dirtyFields);
+        assertFalse(e.needsFullSync());
+    }
+
+    @Test
+    public void markDirtySince_mergesWithEarlierEdits() {
+        ProductEntity e = entity();
+        Map<String, Object> before = e.toRemoteFields();
+        e.sellingPrice = 55;
+        e.markDirtySince(before);
+        before = e.toRemoteFields();
+        e.productName = "Iced Coffee";
+        e.markDirtySince(before);
+
+        assertEquals(new HashSet<>(Arrays.asList("sellingPrice", "productName")), e.getDirtyFieldSet());
+    }
+
+    @Test
+    public void markDirtySince_noChangeLeavesRowClean() {
+        ProductEntity e = entity();
+        e.markDirtySince(e.toRemoteFields());
+
+        assertNull(e.dirtyFields);
+    }
+
+    @Test
+    public void markAllDirty_absorbsLaterEditsAndDeltas() {
+        ProductEntity e = entity();
+        e.markAllDirty();
+        Map<String, Object> before = e.toRemoteFields();
+        e.sellingPrice = 60;
+        e.markDirtySince(before);
+        e.addQuantityDelta(-3);
+
+        assertEquals(ProductEntity.DIRTY_ALL, e.dirtyFields);
+        assertEquals(0, e.pendingQuantityDelta);
+        assertTrue(e.needsFullSync());
+    }
+
+    @Test
+    public void addQuantityDelta_accumulates() {
+        ProductEntity e = entity();
+        e.addQuantityDelta(-2);
+        e.addQuantityDelta(-3);
+
+        assertEquals(-5, e.pendingQuantityDelta);
+        assertFalse(e.needsFullSync());
+    }
+
+    @Test
+    public void absoluteQuantityEdit_replacesPendingDelta() {
+        ProductEntity e = entity();
+        e.addQuantityDelta(-4);
+        Map<String, Object> before = e.toRemoteFields();
+        e.quantity = 25;
+        e.markDirtySince(before);
+        e.addQuantityDelta(-1);
+
+        assertEquals(0, e.pendingQuantityDelta);
+        assertTrue(e.getDirtyFieldSet().contains("quantity"));
+    }
+}
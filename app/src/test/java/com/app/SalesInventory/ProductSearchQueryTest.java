@@ -0,0 +1,42 @@
+package com.app.SalesInventory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ProductSearchQueryTest {
+
+    @Test
+    public void buildMatchQuery_prefixesEachTerm() {
+        assertEquals("cof* lat*", ProductRepository.buildMatchQuery("cof lat"));
+    }
+
+    @Test
+    public void buildMatchQuery_lowercasesSoOperatorsStayTerms() {
+        assertEquals("milk* or* tea*", ProductRepository.buildMatchQuery("Milk OR tea"));
+        assertEquals("a* not* b*", ProductRepository.buildMatchQuery("a NOT b"));
+    }
+
+    @Test
+    public void buildMatchQuery_splitsOnPunctuationAndFtsSyntax() {
+        assertEquals("coke* zero* 330ml*", ProductRepository.buildMatchQuery("\"coke-zero\" (330ml)*"));
+        assertEquals("name* x*", ProductRepository.buildMatchQuery("name:x^"));
+    }
+
+    @Test
+    public void buildMatchQuery_keepsNonAsciiLetters() {
+        assertEquals("piña* colada*", ProductRepository.buildMatchQuery("Piña Colada"));
+    }
+
+    @Test
+    public void buildMatchQuery_returnsNullWithoutTerms() {
+        assertNull(ProductRepository.buildMatchQuery(""));
+        assertNull(ProductRepository.buildMatchQuery("  -*\" "));
+    }
+
+    @Test
+    public void escapeLike_escapesWildcardsAndEscapeChar() {
+        assertEquals("50\\% off\\_x\\\\y", ProductRepository.escapeLike("50% off_x\\y"));
+    }
+}
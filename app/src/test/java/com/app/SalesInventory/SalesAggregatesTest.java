@@ -0,0 +1,122 @@
+package com.app.SalesInventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SalesAggregatesTest {
+    private static final double DELTA = 1e-9;
+    private static final long DAY = 24L * 60L * 60L * 1000L;
+
+    private static Sales sale(double total, long timestamp, String method) {
+        Sales s = new Sales();
+        s.setTotalPrice(total);
+        s.setTimestamp(timestamp);
+        s.setPaymentMethod(method);
+        return s;
+    }
+
+    private static long startOfToday() {
+        Calendar cal = Calendar.getInstance();
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static long startOfMonth() {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(startOfToday());
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        return cal.getTimeInMillis();
+    }
+
+    @Test
+    public void add_countsTodayMonthAndLifetime() {
+        SalesAggregates aggregates = new SalesAggregates();
+        long today = startOfToday();
+        aggregates.add(sale(100, today, "Cash"));
+        aggregates.add(sale(50, startOfMonth() - DAY, "GCash"));
+
+        assertEquals(150, aggregates.getLifetime(), DELTA);
+        assertEquals(100, aggregates.getToday(), DELTA);
+        assertEquals(100, aggregates.getMonth(), DELTA);
+        Map<String, Double> byMethod = aggregates.getByPaymentMethod();
+        assertEquals(100, byMethod.get("Cash"), DELTA);
+        assertEquals(50, byMethod.get("GCash"), DELTA);
+    }
+
+    @Test
+    public void add_saleAtNextMidnightIsNotToday() {
+        SalesAggregates aggregates = new SalesAggregates();
+        aggregates.add(sale(40, startOfToday() + DAY, "Cash"));
+
+        assertEquals(0, aggregates.getToday(), DELTA);
+        assertEquals(40, aggregates.getLifetime(), DELTA);
+    }
+
+    @Test
+    public void add_missingPaymentMethodGroupsAsUnknown() {
+        SalesAggregates aggregates = new SalesAggregates();
+        aggregates.add(sale(10, startOfToday(), null));
+        aggregates.add(sale(5, startOfToday(), ""));
+
+        assertEquals(15, aggregates.getByPaymentMethod().get("Unknown"), DELTA);
+    }
+
+    @Test
+    public void modify_removesOldContributionAndAddsNew() {
+        SalesAggregates aggregates = new SalesAggregates();
+        Sales original = sale(80, startOfToday(), "Cash");
+        aggregates.add(original);
+
+        aggregates.remove(original);
+        aggregates.add(sale(120, startOfToday(), "Card"));
+
+        assertEquals(120, aggregates.getLifetime(), DELTA);
+        assertEquals(120, aggregates.getToday(), DELTA);
+        Map<String, Double> byMethod = aggregates.getByPaymentMethod();
+        assertFalse(byMethod.containsKey("Cash"));
+        assertEquals(120, byMethod.get("Card"), DELTA);
+    }
+
+    @Test
+    public void remove_dropsEmptyPaymentMethodAndIgnoresNull() {
+        SalesAggregates aggregates = new SalesAggregates();
+        Sales s = sale(19.99, startOfToday(), "Cash");
+        aggregates.add(s);
+        aggregates.remove(null);
+        aggregates.remove(s);
+
+        assertEquals(0, aggregates.getLifetime(), DELTA);
+        assertEquals(0, aggregates.getToday(), DELTA);
+        assertTrue(aggregates.getByPaymentMethod().isEmpty());
+    }
+
+    @Test
+    public void rollOver_rebuildsWindowsOnlyWhenDayChanges() {
+        SalesAggregates aggregates = new SalesAggregates();
+        long today = startOfToday();
+        Sales yesterday = sale(30, today - 1, "Cash");
+        Sales now = sale(70, today, "Cash");
+        List<Sales> all = new ArrayList<>(Arrays.asList(yesterday, now));
+        aggregates.add(yesterday);
+        aggregates.add(now);
+
+        assertFalse(aggregates.rollOverIfNeeded(today + 1, all));
+        assertEquals(70, aggregates.getToday(), DELTA);
+
+        assertTrue(aggregates.rollOverIfNeeded(today + DAY, all));
+        assertEquals(0, aggregates.getToday(), DELTA);
+        assertEquals(100, aggregates.getLifetime(), DELTA);
+    }
+}